@@ -10,13 +10,15 @@ import java.util.Objects;
 public class AICommunicator {
 
     /**
-     * Copy-pastes a prompt into ChatGPT by way of the clipboard + AutoHotkey.
+     * Copy-pastes a prompt into ChatGPT by way of the clipboard + AutoHotkey. The script pastes long after it
+     * starts, so the clipboard is only free again once the returned process (null if it could not start) exits.
      */
-    public void sendPromptAutomatically(String fileName, String fileContent) {
+    public Process sendPromptAutomatically(String fileName, String fileContent) {
         String prompt = generatePrompt(fileContent);
         copyToClipboard(prompt);
-        triggerAutoHotkeyScript();
+        Process script = triggerAutoHotkeyScript();
         System.out.println("Prompt sent to ChatGPT automatically.");
+        return script;
     }
 
     /** Builds the LLM prompt around the file’s contents. */
@@ -35,7 +37,7 @@ public class AICommunicator {
     }
 
     /** Locates and runs our bundled AutoHotkey script to paste & send the prompt. */
-    private void triggerAutoHotkeyScript() {
+    private Process triggerAutoHotkeyScript() {
         try {
             // Load the .ahk file from our resources folder
             String ahkScriptPath = new File(
@@ -47,11 +49,12 @@ public class AICommunicator {
             // Adjust this if your install path differs
             String autoHotkeyExe = "C:\\Program Files\\AutoHotkey\\v2\\AutoHotkey.exe";
 
-            Runtime.getRuntime()
-                   .exec(new String[] { autoHotkeyExe, ahkScriptPath });
+            return Runtime.getRuntime()
+                          .exec(new String[] { autoHotkeyExe, ahkScriptPath });
 
         } catch (IOException | URISyntaxException e) {
             System.err.println("Error running AutoHotkey script: " + e.getMessage());
+            return null;
         }
     }
 
@@ -1,13 +1,15 @@
 package com.nexusmind;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public class AIPlanner {
 
-    private final AICommunicator aiCommunicator;
-    private final ChatReader chatReader;
+    private final LlmClient llmClient;
 
-    public AIPlanner() {
-        this.aiCommunicator = new AICommunicator();
-        this.chatReader = new ChatReader();
+    public AIPlanner(LlmClient llmClient) {
+        this.llmClient = llmClient;
     }
 
     public String generateImprovementSuggestions(String projectSummary) {
@@ -31,20 +33,17 @@ public class AIPlanner {
             %s
             """.formatted(projectSummary);
 
-        aiCommunicator.sendPromptAutomatically("Project Evolution Planning", prompt);
-
-        chatReader.openExistingSession();
-
-        System.out.println("Waiting for AI response (45 seconds)...");
+        System.out.println("Waiting for AI planning response from " + llmClient.name() + "...");
         try {
-            Thread.sleep(45000);
+            return llmClient.complete(prompt)
+                    .get(NexusMindConfig.llmTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .text();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("AI planning request failed: " + e.getMessage());
+            return null;
         }
-
-        String suggestions = chatReader.fetchLatestCodeBlock();
-        chatReader.close();
-
-        return suggestions;
     }
 }
@@ -0,0 +1,217 @@
+package com.nexusmind;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limiter for model calls.
+ * <p>
+ * Every healthy reply (success within the latency target) grows the limit by {@code 1/limit}, i.e. by about one
+ * slot per full window. A timeout, throttling answer or invalid reply cuts it by the backoff ratio and pauses
+ * new calls for a jittered, exponentially growing delay. Calls that started before the last cut do not cut again,
+ * so one bad burst costs one decrease rather than one per in-flight call.
+ */
+public class AdaptiveLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetMillis;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private int consecutiveDrops;
+    private long lastDecreaseNanos = System.nanoTime();
+    private long pausedUntilNanos = lastDecreaseNanos;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            Duration latencyTarget, Duration backoffBase, Duration backoffMax) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetMillis = latencyTarget.toMillis();
+        this.backoffBaseMillis = backoffBase.toMillis();
+        this.backoffMaxMillis = backoffMax.toMillis();
+    }
+
+    public static AdaptiveLimiter fromConfig() {
+        int max = NexusMindConfig.getInt("nexusmind.limiter.max", Math.max(1, NexusMindConfig.improveConcurrency()));
+        return new AdaptiveLimiter(
+                NexusMindConfig.getInt("nexusmind.limiter.initial", 1),
+                NexusMindConfig.getInt("nexusmind.limiter.min", 1),
+                max,
+                0.5,
+                Duration.ofSeconds(NexusMindConfig.getInt("nexusmind.limiter.latencyTargetSeconds",
+                        (int) NexusMindConfig.llmTimeout().toSeconds() / 2)),
+                Duration.ofMillis(NexusMindConfig.getInt("nexusmind.limiter.backoffBaseMillis", 2_000)),
+                Duration.ofMillis(NexusMindConfig.getInt("nexusmind.limiter.backoffMaxMillis", 120_000)));
+    }
+
+    /** Blocks until a slot is free and no backoff pause is active. */
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            waiting++;
+            try {
+                while (true) {
+                    long pause = pausedUntilNanos - System.nanoTime();
+                    if (pause > 0) {
+                        changed.awaitNanos(pause);
+                    } else if (inFlight >= (int) limit) {
+                        changed.await();
+                    } else {
+                        break;
+                    }
+                }
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            return new Permit(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Current concurrency limit (whole slots). */
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Calls currently holding a slot. */
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Calls waiting for a slot or for a backoff pause to end. */
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports a reply that was delivered but turned out unusable after the fact (e.g. invalid code).
+     * Ignored while a backoff pause from an earlier decrease is still running.
+     */
+    public void onInvalidReply(String reason) {
+        lock.lock();
+        try {
+            if (pausedUntilNanos - System.nanoTime() > 0) {
+                return;
+            }
+            decrease("invalid reply: " + reason);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return "limit=%d inFlight=%d queued=%d".formatted((int) limit, inFlight, waiting);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Whether {@code error} means the model is overloaded rather than that the request itself was bad. */
+    static boolean isOverload(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException
+                || cause instanceof ReplyAbortedException) {
+            return true;
+        }
+        String message = cause instanceof IOException ? String.valueOf(cause.getMessage()) : "";
+        return message.contains("HTTP 429") || message.contains("HTTP 503");
+    }
+
+    /** Exponential backoff with jitter: a random delay between half and all of {@code min(max, base * 2^attempt)}. */
+    static long jitteredBackoffMillis(int attempt, long baseMillis, long maxMillis) {
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, Math.max(ceiling / 2 + 1, ceiling + 1));
+    }
+
+    private void release(long acquiredNanos, long latencyMillis, Throwable error) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (error == null) {
+                consecutiveDrops = 0;
+                if (latencyMillis <= latencyTargetMillis && limit < maxLimit) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            } else if (isOverload(error) && acquiredNanos - lastDecreaseNanos >= 0) {
+                decrease(error.toString());
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease(String reason) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        long pause = jitteredBackoffMillis(consecutiveDrops++, backoffBaseMillis, backoffMaxMillis);
+        lastDecreaseNanos = System.nanoTime();
+        pausedUntilNanos = lastDecreaseNanos + TimeUnit.MILLISECONDS.toNanos(pause);
+        logger.warn("Model call limit cut to {} and paused {} ms ({})", (int) limit, pause, reason);
+        changed.signalAll();
+    }
+
+    /** One granted slot; report the outcome exactly once through {@link #release(Throwable)}. */
+    public final class Permit {
+
+        private final long acquiredNanos;
+        private boolean released;
+
+        private Permit(long acquiredNanos) {
+            this.acquiredNanos = acquiredNanos;
+        }
+
+        /** Returns the slot; {@code error} is null on success. */
+        public synchronized void release(Throwable error) {
+            if (released) {
+                return;
+            }
+            released = true;
+            AdaptiveLimiter.this.release(acquiredNanos, (System.nanoTime() - acquiredNanos) / 1_000_000, error);
+        }
+    }
+}
@@ -8,17 +8,27 @@ import java.nio.file.Paths;
 public class BranchEvolutionManager {
 
     private static final String EVOLUTION_BRANCH_FILE = "nexusmind_branch_checkpoint.txt";
-    private final String localRepoPath;
+    private final Git git;
+    private String branchName;
 
     public BranchEvolutionManager(String localRepoPath) {
-        this.localRepoPath = localRepoPath;
+        this.git = Git.forRepo(localRepoPath);
     }
 
-    public String getOrCreateEvolutionBranch() {
+    /**
+     * Returns the evolution branch, checked out. The branch name is read from the checkpoint once, and the
+     * checkout is skipped when HEAD already points at the branch.
+     */
+    public synchronized String getOrCreateEvolutionBranch() {
+        if (branchName != null && branchName.equals(git.currentBranch())) {
+            return branchName;
+        }
         try {
             File checkpoint = new File(EVOLUTION_BRANCH_FILE);
-            if (checkpoint.exists()) {
-                String branchName = new String(Files.readAllBytes(checkpoint.toPath())).trim();
+            if (branchName != null || checkpoint.exists()) {
+                if (branchName == null) {
+                    branchName = new String(Files.readAllBytes(checkpoint.toPath())).trim();
+                }
                 System.out.println("Continuing on existing evolution branch: " + branchName);
                 checkoutBranch(branchName);
                 return branchName;
@@ -26,6 +36,7 @@ public class BranchEvolutionManager {
                 String newBranchName = "nexusmind/evolution-" + System.currentTimeMillis();
                 checkoutNewBranch(newBranchName);
                 Files.write(Paths.get(EVOLUTION_BRANCH_FILE), newBranchName.getBytes());
+                branchName = newBranchName;
                 System.out.println("Created new evolution branch: " + newBranchName);
                 return newBranchName;
             }
@@ -34,26 +45,11 @@ public class BranchEvolutionManager {
         }
     }
 
-    private void checkoutNewBranch(String branchName) throws IOException {
-        runCommand(new String[]{"git", "-C", localRepoPath, "checkout", "-b", branchName});
-    }
-
-    private void checkoutBranch(String branchName) throws IOException {
-        runCommand(new String[]{"git", "-C", localRepoPath, "checkout", branchName});
+    private void checkoutNewBranch(String branchName) {
+        git.run("checkout", "-b", branchName).orThrow();
     }
 
-    private void runCommand(String[] command) throws IOException {
-        try {
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.inheritIO();
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                throw new RuntimeException("Git command failed: " + String.join(" ", command));
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Interrupted while running Git command");
-        }
+    private void checkoutBranch(String branchName) {
+        git.run("checkout", branchName).orThrow();
     }
 }
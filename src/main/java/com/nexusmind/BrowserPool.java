@@ -0,0 +1,266 @@
+package com.nexusmind;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.Route;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide Playwright browser with a bounded pool of pre-navigated chat pages.
+ * <p>
+ * Playwright objects are not thread-safe, so one dispatcher thread owns the browser and runs every
+ * page operation handed to {@link #call(Supplier)}. While reply watchers are armed and no work is
+ * queued, the dispatcher keeps pumping Playwright events so binding callbacks arrive without any
+ * caller having to poll.
+ */
+public final class BrowserPool {
+
+    static final String CHAT_URL = "https://chat.openai.com/";
+    static final String REPLY_EVENT_BINDING = "__nexusmindReplyEvent";
+
+    private static final List<String> BLOCKED_RESOURCE_TYPES = List.of("image", "font", "media");
+    private static final List<String> TELEMETRY_HOSTS = List.of(
+            "sentry", "datadog", "google-analytics", "googletagmanager", "segment.", "statsig", "intercom", "featuregates");
+
+    private static volatile BrowserPool shared;
+
+    private final int maxPages;
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Page> idlePages;
+    private final Map<Page, BiConsumer<String, String>> replyListeners = new ConcurrentHashMap<>();
+    private final AtomicInteger activeWatchers = new AtomicInteger();
+    private final AtomicInteger createdPages = new AtomicInteger();
+    private final Thread dispatcher;
+
+    private Playwright playwright;
+    private Browser browser;
+    private BrowserContext context;
+    private volatile boolean running = true;
+
+    private BrowserPool(int maxPages) {
+        this.maxPages = maxPages;
+        this.idlePages = new ArrayBlockingQueue<>(maxPages);
+        this.dispatcher = new Thread(this::runLoop, "nexusmind-browser");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+        call(() -> {
+            for (int i = 0; i < NexusMindConfig.getInt("nexusmind.browser.warmPages", 1) && reservePageSlot(); i++) {
+                idlePages.add(openPage());
+            }
+            return null;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "nexusmind-browser-shutdown"));
+    }
+
+    /** Returns the process-wide pool, launching the browser on first use. */
+    public static BrowserPool shared() {
+        BrowserPool pool = shared;
+        if (pool == null) {
+            synchronized (BrowserPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = new BrowserPool(NexusMindConfig.getInt("nexusmind.browser.pages", 2));
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Leases a ready chat page, opening a new one while fewer than the configured maximum exist.
+     *
+     * @param onReplyEvent receives (type, payload) reply events raised by scripts on the leased page
+     */
+    public Page lease(Duration timeout, BiConsumer<String, String> onReplyEvent) throws TimeoutException {
+        Page page = idlePages.poll();
+        if (page == null && reservePageSlot()) {
+            try {
+                page = call(this::openPage);
+            } catch (RuntimeException e) {
+                createdPages.decrementAndGet();
+                throw e;
+            }
+        }
+        if (page == null) {
+            try {
+                page = idlePages.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (page == null) {
+                throw new TimeoutException("No browser page available within " + timeout.toSeconds() + "s");
+            }
+        }
+        replyListeners.put(page, onReplyEvent);
+        return page;
+    }
+
+    private boolean reservePageSlot() {
+        int current;
+        do {
+            current = createdPages.get();
+            if (current >= maxPages) {
+                return false;
+            }
+        } while (!createdPages.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /** Returns a leased page to the pool; pages closed by the caller are replaced lazily. */
+    public void release(Page page) {
+        replyListeners.remove(page);
+        boolean closed = call(page::isClosed);
+        if (closed) {
+            createdPages.decrementAndGet();
+        } else {
+            idlePages.offer(page);
+        }
+    }
+
+    /** Runs {@code action} on the dispatcher thread and waits for its result. */
+    public <T> T call(Supplier<T> action) {
+        if (Thread.currentThread() == dispatcher) {
+            return action.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        tasks.add(() -> {
+            try {
+                result.complete(action.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        try {
+            while (true) {
+                try {
+                    return result.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    if (!dispatcher.isAlive()) {
+                        throw new IllegalStateException("Browser thread is not running");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for browser thread", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Browser task failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /** Marks a reply watcher as armed or finished; the dispatcher only pumps events while any are armed. */
+    void watcherArmed() {
+        activeWatchers.incrementAndGet();
+    }
+
+    void watcherDone() {
+        activeWatchers.decrementAndGet();
+    }
+
+    private void runLoop() {
+        try {
+            playwright = Playwright.create();
+            browser = playwright.chromium().launch();
+            context = browser.newContext();
+            context.route("**/*", this::filterRequest);
+            context.exposeBinding(REPLY_EVENT_BINDING, (source, args) -> {
+                BiConsumer<String, String> listener = replyListeners.get(source.page());
+                if (listener != null) {
+                    listener.accept(String.valueOf(args[0]), args.length > 1 ? String.valueOf(args[1]) : null);
+                }
+                return null;
+            });
+            System.out.println("[BrowserPool] Browser launched.");
+        } catch (Exception e) {
+            System.err.println("[BrowserPool] Failed to launch browser: " + e.getMessage());
+            closeBrowser();
+            return;
+        }
+
+        while (running) {
+            try {
+                Runnable task = tasks.poll(activeWatchers.get() > 0 ? 0 : 500, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                } else if (activeWatchers.get() > 0) {
+                    pumpEvents();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                System.err.println("[BrowserPool] Dispatcher error: " + e.getMessage());
+            }
+        }
+        closeBrowser();
+    }
+
+    /** Lets Playwright process incoming messages (bindings, routes) for a short slice. */
+    private void pumpEvents() {
+        List<Page> pages = context.pages();
+        if (!pages.isEmpty()) {
+            pages.get(0).waitForTimeout(25);
+        }
+    }
+
+    private void filterRequest(Route route) {
+        String type = route.request().resourceType();
+        String url = route.request().url();
+        if (BLOCKED_RESOURCE_TYPES.contains(type) || TELEMETRY_HOSTS.stream().anyMatch(url::contains)) {
+            route.abort();
+        } else {
+            route.resume();
+        }
+    }
+
+    private Page openPage() {
+        Page page = context.newPage();
+        page.navigate(CHAT_URL);
+        System.out.println("[BrowserPool] Opened chat page " + createdPages.get() + "/" + maxPages);
+        return page;
+    }
+
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    private void closeBrowser() {
+        try {
+            if (context != null) {
+                context.close();
+            }
+            if (browser != null) {
+                browser.close();
+            }
+            if (playwright != null) {
+                playwright.close();
+            }
+            System.out.println("[BrowserPool] Browser closed.");
+        } catch (Exception e) {
+            System.err.println("[BrowserPool] Failed to close browser: " + e.getMessage());
+        }
+    }
+}
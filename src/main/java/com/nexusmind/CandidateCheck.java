@@ -0,0 +1,37 @@
+package com.nexusmind;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * One acceptance check for an AI-written source file, run before anything touches the main checkout.
+ */
+public interface CandidateCheck {
+
+    /**
+     * Returns null when {@code code} passes, otherwise a short rejection reason. {@code worktree} is a private
+     * checkout that already holds the candidate at {@code relativePath}, or null for checks that do not
+     * {@linkplain #needsWorktree() need one}. A check that cannot run throws {@link CheckUnavailableException}
+     * instead of rejecting, so the code is not blamed for it.
+     */
+    String check(Path worktree, String relativePath, String code);
+
+    /**
+     * Checks candidates that each passed on their own once they are applied together; {@code changes} maps
+     * relative paths to code in apply order, and {@code worktree} (when needed) holds all of them. By default
+     * every file is checked again against that combined checkout.
+     */
+    default String checkAll(Path worktree, Map<String, String> changes) {
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String rejection = check(worktree, change.getKey(), change.getValue());
+            if (rejection != null) {
+                return change.getKey() + ": " + rejection;
+            }
+        }
+        return null;
+    }
+
+    default boolean needsWorktree() {
+        return false;
+    }
+}
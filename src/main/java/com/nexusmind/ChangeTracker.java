@@ -0,0 +1,188 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Finds out what changed in the working copy between two cycles without rescanning it.
+ * <p>
+ * Committed changes come from {@code git diff --name-only} between the commit the indexes were last synced to
+ * and the new HEAD. Uncommitted changes (new feature classes, files written by the agent) are collected by a
+ * {@link WatchService} on every indexed directory. Paths are reported relative to the repository root with
+ * '/' separators; whether a path was added, modified or deleted is left to the consumer, which checks the
+ * file system. When the watcher loses events it reports an overflow and callers fall back to a full rescan.
+ */
+public class ChangeTracker implements AutoCloseable {
+
+    private final Path root;
+    private final Git git;
+    private final Set<String> pending = new HashSet<>();
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean overflowed;
+
+    public ChangeTracker(String root) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.git = Git.forRepo(root);
+    }
+
+    /** Current HEAD commit, or null outside a git checkout. */
+    public String head() {
+        return git.resolve("HEAD");
+    }
+
+    /**
+     * Paths touched by the commits between {@code fromCommit} and {@code toCommit}, renames reported as a delete
+     * plus an add. Null when the range cannot be diffed (e.g. {@code fromCommit} is not a known commit).
+     */
+    public Set<String> changedBetween(String fromCommit, String toCommit) {
+        if (fromCommit == null || toCommit == null) {
+            return null;
+        }
+        Set<String> changed = new HashSet<>();
+        if (fromCommit.equals(toCommit)) {
+            return changed;
+        }
+        Git.Result diff = git.run("diff", "--name-only", "--no-renames", "-z", fromCommit, toCommit);
+        if (!diff.ok()) {
+            return null;
+        }
+        for (String path : diff.stdout().split("\0")) {
+            if (!path.isEmpty()) {
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    /** Starts watching {@code directories} (relative to the root); later calls only add new directories. */
+    public synchronized void watch(Iterable<String> directories) {
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                watchThread = Thread.ofPlatform().daemon().name("nexusmind-watch").start(this::pumpEvents);
+            }
+            Set<Path> known = new HashSet<>(watchedDirs.values());
+            for (String directory : directories) {
+                Path dir = root.resolve(directory);
+                if (!known.contains(dir)) {
+                    register(dir);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[ChangeTracker] File watching unavailable: " + e.getMessage());
+            overflowed = true;
+        }
+    }
+
+    /** Returns and clears the paths seen by the watcher since the last call. */
+    public synchronized Set<String> drainWatched() {
+        Set<String> drained = new HashSet<>(pending);
+        pending.clear();
+        return drained;
+    }
+
+    /** True once events may have been lost; cleared by {@link #resetOverflow()} after a full rescan. */
+    public boolean overflowed() {
+        return overflowed;
+    }
+
+    public synchronized void resetOverflow() {
+        overflowed = false;
+        pending.clear();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("[ChangeTracker] Failed to close watcher: " + e.getMessage());
+            }
+            watchThread.interrupt();
+        }
+    }
+
+    private void register(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirs.put(key, dir);
+    }
+
+    private void pumpEvents() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = watchedDirs.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflowed = true;
+                        continue;
+                    }
+                    Path child = dir.resolve((Path) event.context());
+                    String relative = root.relativize(child).toString().replace('\\', '/');
+                    if (isIgnoredDir(relative)) {
+                        continue;
+                    }
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                        registerTree(child);
+                    }
+                    synchronized (this) {
+                        pending.add(relative);
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirs.remove(key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // watcher closed
+        }
+    }
+
+    /** A directory created between cycles: watch it and report the files it already contains. */
+    private void registerTree(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String relative = root.relativize(path).toString().replace('\\', '/');
+                if (isIgnoredDir(relative)) {
+                    continue;
+                }
+                if (Files.isDirectory(path)) {
+                    register(path);
+                }
+                synchronized (this) {
+                    pending.add(relative);
+                }
+            }
+        } catch (IOException e) {
+            overflowed = true;
+        }
+    }
+
+    private static boolean isIgnoredDir(String relative) {
+        for (String part : relative.split("/")) {
+            if (ProjectStructureMapper.IGNORE_DIRS.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
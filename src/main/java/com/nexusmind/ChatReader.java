@@ -2,48 +2,282 @@ package com.nexusmind;
 
 import com.microsoft.playwright.ElementHandle;
 import com.microsoft.playwright.Page;
-import com.microsoft.playwright.Playwright;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * One chat session on a page leased from the shared {@link BrowserPool}.
+ * {@link #close()} hands the page back to the pool; the browser itself stays up for the whole process.
+ */
 public class ChatReader {
 
-    private final Playwright playwright;
+    private static final String ASSISTANT_SELECTOR = "div[data-message-author-role='assistant']";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(90);
+
+    /**
+     * Watches the newest assistant message and reports back through {@code BrowserPool.REPLY_EVENT_BINDING}:
+     * "finished" once the stop button disappears after generation started, and "stable" once the
+     * text has not changed for {@code stableMs} while nothing is generating. When {@code streamDeltas} is
+     * set, the message is also serialized to markdown (code fences included) and every growth of that
+     * text is sent as a "delta" event carrying only the new suffix. While the reply is generated its last
+     * part is left open (no closing fence, no blank line), so each serialization extends the previous one;
+     * the closing text goes out as a last delta just before "finished" or "stable". Arming again disconnects the previous
+     * observer and clears its pending timers, so nothing from an earlier reply reaches the new one.
+     */
+    private static final String REPLY_OBSERVER_SCRIPT = """
+            ({ baseline, stableMs, selector, binding, streamDeltas }) => {
+                if (window.__nexusmindDisarm) {
+                    window.__nexusmindDisarm();
+                }
+                const generating = () => !!document.querySelector("button[data-testid='stop-button']");
+                const latest = () => {
+                    const all = document.querySelectorAll(selector);
+                    return all.length > baseline ? all[all.length - 1] : null;
+                };
+                let lastText = null;
+                let timer = null;
+                let sawGenerating = false;
+                let finishedSent = false;
+                let sentMarkdown = '';
+                let deltaTimer = null;
+                const serialize = (message, complete) => {
+                    const parts = message.querySelectorAll('div.markdown > *');
+                    let out = '';
+                    for (let i = 0; i < parts.length; i++) {
+                        const part = parts[i];
+                        const open = !complete && i === parts.length - 1;
+                        if (part.tagName === 'PRE') {
+                            const code = part.querySelector('code');
+                            if (code) {
+                                const java = (code.getAttribute('class') || '').includes('language-java');
+                                out += (java ? '```java' : '```') + '\\n' + code.innerText + (open ? '' : '\\n```\\n\\n');
+                            }
+                        } else {
+                            out += part.innerText + (open ? '' : '\\n\\n');
+                        }
+                    }
+                    return out;
+                };
+                const sendDelta = (complete) => {
+                    clearTimeout(deltaTimer);
+                    deltaTimer = null;
+                    const message = latest();
+                    if (!message) {
+                        return;
+                    }
+                    const markdown = serialize(message, complete);
+                    if (markdown.length > sentMarkdown.length && markdown.startsWith(sentMarkdown)) {
+                        window[binding]('delta', markdown.substring(sentMarkdown.length));
+                        sentMarkdown = markdown;
+                    }
+                };
+                const scheduleStable = () => {
+                    clearTimeout(timer);
+                    timer = setTimeout(() => {
+                        if (generating()) {
+                            scheduleStable();
+                        } else {
+                            if (streamDeltas) {
+                                sendDelta(true);
+                            }
+                            window[binding]('stable', lastText.length);
+                        }
+                    }, stableMs);
+                };
+                const check = () => {
+                    const message = latest();
+                    if (!message) {
+                        return;
+                    }
+                    const busy = generating();
+                    sawGenerating = sawGenerating || busy;
+                    const text = message.innerText;
+                    if (sawGenerating && !busy && !finishedSent && text.length > 0) {
+                        finishedSent = true;
+                        if (streamDeltas) {
+                            sendDelta(true);
+                        }
+                        window[binding]('finished', text.length);
+                    }
+                    if (text !== lastText) {
+                        lastText = text;
+                        scheduleStable();
+                        if (streamDeltas && deltaTimer === null) {
+                            deltaTimer = setTimeout(() => sendDelta(false), 150);
+                        }
+                    }
+                };
+                const observer = new MutationObserver(check);
+                observer.observe(document.body, { childList: true, subtree: true, characterData: true, attributes: true });
+                window.__nexusmindDisarm = () => {
+                    observer.disconnect();
+                    clearTimeout(timer);
+                    clearTimeout(deltaTimer);
+                };
+                check();
+            }
+            """;
+
+    private final BrowserPool pool;
     private final Page page;
+    private final long stableMillis;
+    private volatile CompletableFuture<String> pendingReply;
+    private volatile ReplyListener deltaListener;
+    private volatile int baseline;
+    private boolean closed;
 
     public ChatReader() {
-        this.playwright = Playwright.create();
-        this.page = playwright.chromium().launch().newContext().newPage();
-        this.page.navigate("https://chat.openai.com/");
+        this.pool = BrowserPool.shared();
+        this.stableMillis = NexusMindConfig.getInt("nexusmind.chatui.stableMillis", 2500);
+        try {
+            this.page = pool.lease(NexusMindConfig.llmTimeout(), this::onReplyEvent);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("[ChatReader] " + e.getMessage(), e);
+        }
     }
 
     public void openExistingSession() {
         // No real open needed - session opened in constructor
     }
 
-    public void close() {
-        if (page != null) {
-            try {
-                page.close();
-                playwright.close();
-                System.out.println("[ChatReader] Page and Playwright closed successfully.");
-            } catch (Exception e) {
-                System.err.println("[ChatReader] Failed to close page: " + e.getMessage());
+    /**
+     * Starts watching for the next assistant message. Must be called before the prompt is sent so the
+     * current message count can serve as the baseline.
+     *
+     * @return a future completed with the event type ("finished" or "stable") once the reply is final
+     */
+    public CompletableFuture<String> armReplyWatcher() {
+        return armReplyWatcher(null);
+    }
+
+    /**
+     * Same as {@link #armReplyWatcher()}, additionally feeding the reply to {@code listener} while it is
+     * generated. If the listener rejects a chunk the future completes with "aborted".
+     */
+    public CompletableFuture<String> armReplyWatcher(ReplyListener listener) {
+        CompletableFuture<String> previous = pendingReply;
+        if (previous != null && !previous.isDone()) {
+            previous.cancel(false);
+        }
+        // Events raised by the previous observer before it is disarmed find no pending reply and are dropped.
+        pendingReply = null;
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        pool.call(() -> {
+            baseline = page.querySelectorAll(ASSISTANT_SELECTOR).size();
+            return page.evaluate(REPLY_OBSERVER_SCRIPT, Map.of(
+                    "baseline", baseline,
+                    "stableMs", stableMillis,
+                    "selector", ASSISTANT_SELECTOR,
+                    "binding", BrowserPool.REPLY_EVENT_BINDING,
+                    "streamDeltas", listener != null));
+        });
+        deltaListener = listener;
+        pendingReply = reply;
+        pool.watcherArmed();
+        reply.whenComplete((type, error) -> pool.watcherDone());
+        return reply;
+    }
+
+    /**
+     * Blocks until the armed watcher reports a final reply, then returns it as markdown.
+     * Binding callbacks are delivered by the pool's dispatcher thread, so this simply waits on the future.
+     */
+    public String awaitReply(Duration timeout) throws TimeoutException {
+        CompletableFuture<String> reply = pendingReply;
+        if (reply == null) {
+            throw new IllegalStateException("armReplyWatcher() must be called before awaitReply()");
+        }
+        try {
+            String type = reply.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if ("aborted".equals(type)) {
+                stopGeneration();
+                throw new ReplyAbortedException(deltaListener.abortReason());
             }
+            System.out.println("[ChatReader] Reply " + type + "; reading latest assistant message.");
+        } catch (TimeoutException e) {
+            reply.cancel(false);
+            throw new TimeoutException("No final assistant reply within " + timeout.toSeconds() + "s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reply.cancel(false);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+        return pool.call(this::readLatestAssistantReply);
+    }
+
+    /** Runs on the pool's dispatcher thread; must not call back into Playwright. */
+    private void onReplyEvent(String type, String payload) {
+        CompletableFuture<String> reply = pendingReply;
+        if (reply == null || reply.isDone()) {
+            return;
+        }
+        if ("delta".equals(type)) {
+            ReplyListener listener = deltaListener;
+            if (listener != null && !listener.onChunk(payload)) {
+                reply.complete("aborted");
+            }
+        } else if ("finished".equals(type) || "stable".equals(type)) {
+            ReplyListener listener = deltaListener;
+            reply.complete(listener != null && !listener.finish() ? "aborted" : type);
+        }
+    }
+
+    /** Clicks the chat UI's stop button so the session is free for the next prompt. */
+    public void stopGeneration() {
+        pool.call(() -> {
+            ElementHandle stop = page.querySelector("button[data-testid='stop-button']");
+            if (stop != null) {
+                stop.click();
+                System.out.println("[ChatReader] Generation stopped.");
+            }
+            return null;
+        });
+    }
+
+    /** Returns the page to the shared pool. Safe to call more than once. */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        CompletableFuture<String> reply = pendingReply;
+        if (reply != null && !reply.isDone()) {
+            reply.cancel(false);
+        }
+        try {
+            pool.release(page);
+            System.out.println("[ChatReader] Page returned to browser pool.");
+        } catch (Exception e) {
+            System.err.println("[ChatReader] Failed to release page: " + e.getMessage());
         }
     }
 
     public String fetchLatestCodeBlock() {
+        if (!awaitSelector("pre code", FETCH_TIMEOUT)) {
+            System.err.println("No code block found!");
+            return null;
+        }
+        return pool.call(this::readLatestCodeBlock);
+    }
+
+    private String readLatestCodeBlock() {
         try {
-            page.waitForSelector("pre code", new Page.WaitForSelectorOptions().setTimeout(90000));
-            ElementHandle latestCodeBlock = page.querySelector("pre code");
+            List<ElementHandle> codeBlocks = page.querySelectorAll("pre code");
 
-            if (latestCodeBlock == null) {
+            if (codeBlocks.isEmpty()) {
                 System.err.println("No code block found!");
                 return null;
             }
 
-            String codeContent = latestCodeBlock.innerText();
+            String codeContent = codeBlocks.get(codeBlocks.size() - 1).innerText();
             System.out.println("[ChatReader] Fetched latest code block successfully.");
             return codeContent;
         } catch (Exception e) {
@@ -53,35 +287,20 @@ public class ChatReader {
     }
 
     public String fetchFullAIReply() {
+        if (!awaitSelector(ASSISTANT_SELECTOR, FETCH_TIMEOUT)) {
+            System.err.println("No AI reply found!");
+            return null;
+        }
+        return pool.call(this::readFullAIReply);
+    }
+
+    private String readFullAIReply() {
         try {
-            page.waitForSelector("div[data-message-author-role='assistant']", new Page.WaitForSelectorOptions().setTimeout(90000));
-            ElementHandle message = page.querySelector("div[data-message-author-role='assistant']");
-            if (message == null) {
+            String result = readLatestAssistantReply();
+            if (result == null) {
                 System.err.println("No AI reply found!");
                 return null;
             }
-
-            List<ElementHandle> parts = message.querySelectorAll("div.markdown > *");
-            StringBuilder fullResponse = new StringBuilder();
-
-            for (ElementHandle part : parts) {
-                String tagName = part.evaluate("e => e.tagName").toString().toLowerCase();
-                if (tagName.equals("\"P\"")) {
-                    fullResponse.append(part.innerText()).append("\n\n");
-                } else if (tagName.equals("\"PRE\"")) {
-                    ElementHandle code = part.querySelector("code");
-                    if (code != null) {
-                        String className = code.getAttribute("class");
-                        if (className != null && className.contains("language-java")) {
-                            fullResponse.append("```java\n").append(code.innerText()).append("\n```\n\n");
-                        } else {
-                            fullResponse.append("```\n").append(code.innerText()).append("\n```\n\n");
-                        }
-                    }
-                }
-            }
-
-            String result = fullResponse.toString().trim();
             System.out.println("[ChatReader] Fetched full structured AI response successfully.");
             return result;
         } catch (Exception e) {
@@ -89,4 +308,57 @@ public class ChatReader {
             return null;
         }
     }
+
+    /**
+     * Polls for {@code selector} from the calling thread. Each probe is a single non-blocking query on the
+     * dispatcher, so a slow page never holds up the other leased pages the way a blocking wait would.
+     */
+    private boolean awaitSelector(String selector, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pool.call(() -> page.querySelector(selector) == null)) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Renders the newest assistant message back into markdown, keeping code fences. Only messages past the
+     * baseline of the last armed watcher count, so an earlier reply on a reused page is never returned.
+     */
+    private String readLatestAssistantReply() {
+        List<ElementHandle> messages = page.querySelectorAll(ASSISTANT_SELECTOR);
+        if (messages.size() <= baseline) {
+            return null;
+        }
+        ElementHandle message = messages.get(messages.size() - 1);
+        List<ElementHandle> parts = message.querySelectorAll("div.markdown > *");
+        StringBuilder fullResponse = new StringBuilder();
+
+        for (ElementHandle part : parts) {
+            String tagName = String.valueOf(part.evaluate("e => e.tagName"));
+            if (tagName.equalsIgnoreCase("PRE")) {
+                ElementHandle code = part.querySelector("code");
+                if (code != null) {
+                    String className = code.getAttribute("class");
+                    if (className != null && className.contains("language-java")) {
+                        fullResponse.append("```java\n").append(code.innerText()).append("\n```\n\n");
+                    } else {
+                        fullResponse.append("```\n").append(code.innerText()).append("\n```\n\n");
+                    }
+                }
+            } else {
+                fullResponse.append(part.innerText()).append("\n\n");
+            }
+        }
+
+        return fullResponse.toString().trim();
+    }
 }
@@ -0,0 +1,101 @@
+package com.nexusmind;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Legacy {@link LlmClient} backend: pastes the prompt into the ChatGPT window via clipboard + AutoHotkey
+ * and scrapes the reply with Playwright once the page reports it as final. Requires a desktop session.
+ * Each request leases its own chat page from the shared {@link BrowserPool}; only the clipboard hand-off
+ * is serialized because there is a single system clipboard. The hand-off lasts until the AutoHotkey script
+ * has pasted and exited (about 25 s), which bounds how quickly concurrent prompts can be sent.
+ */
+public class ChatUiLlmClient implements LlmClient {
+
+    private static final long PASTE_TIMEOUT_SECONDS = 120;
+
+    private final AICommunicator aiCommunicator = new AICommunicator();
+    private final ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Object clipboardLock = new Object();
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(String prompt) {
+        return stream(prompt, null);
+    }
+
+    /**
+     * Streams the reply from the page; an aborting listener stops the generation in the chat UI. Cancelling or
+     * failing the returned future from outside interrupts the request, which stops waiting and hands the page back.
+     */
+    @Override
+    public CompletableFuture<LlmResponse> stream(String prompt, ReplyListener listener) {
+        CompletableFuture<LlmResponse> reply = new CompletableFuture<>();
+        Future<?> request = requestThreads.submit(() -> {
+            try {
+                reply.complete(request(prompt, listener));
+            } catch (Throwable t) {
+                reply.completeExceptionally(t);
+            }
+        });
+        reply.whenComplete((response, error) -> {
+            if (error != null) {
+                request.cancel(true);
+            }
+        });
+        return reply;
+    }
+
+    private LlmResponse request(String prompt, ReplyListener listener) {
+        long start = System.nanoTime();
+        ChatReader chatReader = new ChatReader();
+        try {
+            chatReader.openExistingSession();
+            chatReader.armReplyWatcher(listener);
+            synchronized (clipboardLock) {
+                paste(prompt);
+            }
+            String reply = chatReader.awaitReply(NexusMindConfig.llmTimeout());
+            if (reply == null) {
+                throw new CompletionException(new TimeoutException("No reply found in chat UI"));
+            }
+            return new LlmResponse(reply, name(), (System.nanoTime() - start) / 1_000_000);
+        } catch (TimeoutException | ReplyAbortedException e) {
+            throw new CompletionException(e);
+        } finally {
+            chatReader.close();
+        }
+    }
+
+    /** Runs the clipboard hand-off and waits for the script to paste, so the next prompt cannot overwrite it. */
+    private void paste(String prompt) {
+        Process script = aiCommunicator.sendPromptAutomatically("NexusMind prompt", prompt);
+        if (script == null) {
+            throw new CompletionException(new IllegalStateException("AutoHotkey script could not be started"));
+        }
+        try {
+            if (!script.waitFor(PASTE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                script.destroyForcibly();
+                throw new CompletionException(new TimeoutException("AutoHotkey script did not finish pasting"));
+            }
+        } catch (InterruptedException e) {
+            script.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "chat-ui";
+    }
+
+    @Override
+    public void close() {
+        requestThreads.shutdown();
+    }
+}
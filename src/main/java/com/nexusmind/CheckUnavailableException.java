@@ -0,0 +1,17 @@
+package com.nexusmind;
+
+/**
+ * Signals that an acceptance check could not run at all, so the candidate is unverified rather than rejected.
+ */
+public class CheckUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CheckUnavailableException(String reason) {
+        super(reason);
+    }
+
+    public CheckUnavailableException(String reason, Throwable cause) {
+        super(reason, cause);
+    }
+}
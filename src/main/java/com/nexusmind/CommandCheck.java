@@ -0,0 +1,92 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a build or test command (e.g. {@code mvn -q -o compile}) inside the candidate's worktree and rejects the
+ * candidate when it exits non-zero or overruns its timeout. The command is split on whitespace, not run through
+ * a shell.
+ */
+public class CommandCheck implements CandidateCheck {
+
+    private final List<String> command;
+    private final Duration timeout;
+
+    public CommandCheck(String command, Duration timeout) {
+        this.command = List.of(command.trim().split("\\s+"));
+        this.timeout = timeout;
+    }
+
+    /** The check configured by {@code nexusmind.validate.command}, or null when none is set. */
+    public static CommandCheck fromConfig() {
+        String command = NexusMindConfig.get("nexusmind.validate.command", "");
+        return command.isEmpty() ? null : new CommandCheck(command,
+                Duration.ofSeconds(NexusMindConfig.getInt("nexusmind.validate.timeoutSeconds", 300)));
+    }
+
+    @Override
+    public boolean needsWorktree() {
+        return true;
+    }
+
+    @Override
+    public String check(Path worktree, String relativePath, String code) {
+        return run(worktree, relativePath);
+    }
+
+    /** The command covers the whole checkout, so a combined worktree needs one run, not one per file. */
+    @Override
+    public String checkAll(Path worktree, Map<String, String> changes) {
+        return run(worktree, changes.size() + " changes together");
+    }
+
+    private String run(Path worktree, String label) {
+        long start = System.nanoTime();
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(worktree.toFile())
+                    .redirectErrorStream(true)
+                    .start();
+            process.getOutputStream().close();
+            // Drained on a virtual thread so a chatty build cannot block on a full pipe.
+            CompletableFuture<String> output = new CompletableFuture<>();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    output.complete(new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    output.complete("");
+                }
+            });
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new CheckUnavailableException("'" + String.join(" ", command) + "' timed out after "
+                        + timeout.toSeconds() + " s");
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            if (process.exitValue() != 0) {
+                System.out.println("[Validate] " + label + " failed '" + String.join(" ", command) + "' in "
+                        + millis + " ms:\n" + tail(output.join(), 20));
+                return "'" + String.join(" ", command) + "' exited with " + process.exitValue();
+            }
+            System.out.println("[Validate] " + label + " passed '" + String.join(" ", command) + "' in " + millis + " ms");
+            return null;
+        } catch (IOException e) {
+            throw new CheckUnavailableException("could not run '" + String.join(" ", command) + "': " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CheckUnavailableException("interrupted", e);
+        }
+    }
+
+    private static String tail(String output, int lines) {
+        String[] all = output.split("\n");
+        return String.join("\n", List.of(all).subList(Math.max(0, all.length - lines), all.length));
+    }
+}
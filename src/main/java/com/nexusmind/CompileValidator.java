@@ -0,0 +1,569 @@
+package com.nexusmind;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles a candidate in-process with {@code javax.tools} before any git work is done.
+ * <p>
+ * The compiler and one standard file manager per validating thread stay warm across candidates, so the
+ * classpath ({@code nexusmind.compile.classpath}) is indexed once and a compile takes milliseconds after the
+ * first. The rest of the project is compiled from the committed tree into class files held in memory, so a
+ * candidate (compiled from memory, its generated classes discarded) is checked against class files instead of
+ * re-parsing every source it references; nothing is written to disk. When HEAD moves, only the sources the new
+ * commits changed are recompiled into that build. The files that use the candidate directly (per the
+ * {@link SymbolIndex}) are recompiled with it, so a renamed or removed member they still use is caught. When the
+ * project cannot be compiled completely here (for example a dependency jar is missing from the classpath)
+ * candidates are resolved from the source root with {@code -implicit:none} instead, and since the original
+ * files show the same errors, only errors the original files did not have reject a candidate.
+ */
+public class CompileValidator implements CandidateCheck {
+
+    /** One compiler error; {@code line} is 0 when it has no position. */
+    public record Problem(String source, long line, String code, String message) {
+
+        @Override
+        public String toString() {
+            return source + (line > 0 ? ":" + line : "") + ": " + message;
+        }
+    }
+
+    /**
+     * Errors of one compilation and how long it took; {@code failure} is set when the compiler itself failed,
+     * in which case the code could not be checked at all.
+     */
+    public record Result(List<Problem> errors, long millis, String failure) {
+
+        public boolean ok() {
+            return errors.isEmpty() && failure == null;
+        }
+    }
+
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final int BASELINE_CACHE_SIZE = 256;
+
+    private final JavaCompiler compiler;
+    private final RepoManager repoManager;
+    private final Path repoRoot;
+    private final List<File> classpath;
+    private final List<String> options;
+    private final List<String> checkOptions;
+    private final ThreadLocal<StandardJavaFileManager> fileManagers;
+    private final Map<Path, ProjectClasses> projects = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> baselines = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+            return size() > BASELINE_CACHE_SIZE;
+        }
+    };
+
+    private CompileValidator(JavaCompiler compiler, RepoManager repoManager, List<File> classpath, String release) {
+        this.compiler = compiler;
+        this.repoManager = repoManager;
+        this.repoRoot = Path.of(repoManager.getLocalPath()).toAbsolutePath().normalize();
+        this.classpath = classpath;
+        this.options = release.isEmpty()
+                ? List.of("-proc:none", "-implicit:none", "-nowarn", "-g:none", "-encoding", "UTF-8")
+                : List.of("-proc:none", "-implicit:none", "-nowarn", "-g:none", "-encoding", "UTF-8", "--release", release);
+        // Candidates only need attribution and flow analysis; javac's long-standing should-stop switch skips
+        // desugaring and class generation, about a fifth of the compile time.
+        this.checkOptions = new ArrayList<>(options);
+        this.checkOptions.add("-XDshould-stop.ifNoError=FLOW");
+        this.fileManagers = ThreadLocal.withInitial(this::newFileManager);
+    }
+
+    /**
+     * The validator for the repository's working copy, or null when disabled ({@code nexusmind.validate.compile=false})
+     * or when running on a JRE without a system compiler.
+     */
+    public static CompileValidator forRepo(RepoManager repoManager) {
+        if (!NexusMindConfig.getBoolean("nexusmind.validate.compile", true)) {
+            return null;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("[Compile] No system Java compiler (running on a JRE?); compile validation is off");
+            return null;
+        }
+        List<File> classpath = Arrays.stream(NexusMindConfig.get("nexusmind.compile.classpath", "").split(File.pathSeparator))
+                .map(String::trim).filter(s -> !s.isEmpty()).map(File::new).toList();
+        return new CompileValidator(compiler, repoManager, classpath,
+                NexusMindConfig.get("nexusmind.compile.release", "").trim());
+    }
+
+    @Override
+    public String check(Path worktree, String relativePath, String code) {
+        return verdict(Map.of(relativePath, code));
+    }
+
+    /** Compiles all changes and their dependents in one task, so they are checked against each other. */
+    @Override
+    public String checkAll(Path worktree, Map<String, String> changes) {
+        return verdict(changes);
+    }
+
+    /**
+     * Null when {@code changes} (relative path to new content) compile together, otherwise why not; throws
+     * {@link CheckUnavailableException} when the compiler itself failed.
+     */
+    private String verdict(Map<String, String> changes) {
+        String label = String.join(", ", changes.keySet());
+        Result result = compile(changes);
+        if (result.failure() != null) {
+            throw new CheckUnavailableException("could not be compiled here: " + result.failure());
+        }
+        if (result.ok()) {
+            System.out.println("[Compile] " + label + " compiled in " + result.millis() + " ms");
+            return null;
+        }
+        Set<String> tolerated = baseline(changes.keySet());
+        List<Problem> introduced = result.errors().stream().filter(p -> !tolerated.contains(key(p))).toList();
+        if (introduced.isEmpty()) {
+            System.out.println("[Compile] " + label + " compiled in " + result.millis() + " ms ("
+                    + result.errors().size() + " errors also present before the change)");
+            return null;
+        }
+        System.out.println("[Compile] " + label + " failed in " + result.millis() + " ms:\n  "
+                + introduced.stream().map(Problem::toString).collect(Collectors.joining("\n  ")));
+        return "does not compile: " + introduced.stream().limit(3).map(Problem::toString).collect(Collectors.joining("; "));
+    }
+
+    /** Compiles {@code code} as the file at {@code relativePath} against the rest of the project. */
+    public Result compile(String relativePath, String code) {
+        return compile(Map.of(relativePath, code));
+    }
+
+    /**
+     * Compiles every changed file (relative path to new content) together with the files that use one of them,
+     * against the rest of the project.
+     */
+    public Result compile(Map<String, String> changes) {
+        long start = System.nanoTime();
+        Map<Path, Map<String, String>> byRoot = new LinkedHashMap<>();
+        Map<String, String> outside = new LinkedHashMap<>();
+        changes.forEach((relativePath, code) -> {
+            Matcher pkg = PACKAGE.matcher(code);
+            Path sourceRoot = sourceRoot(relativePath, pkg.find() ? pkg.group(1) : "");
+            (sourceRoot == null ? outside : byRoot.computeIfAbsent(sourceRoot, k -> new LinkedHashMap<>()))
+                    .put(relativePath, code);
+        });
+        List<Problem> errors = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        byRoot.forEach((sourceRoot, rootChanges) -> failures.add(compileUnder(sourceRoot, rootChanges, errors)));
+        outside.forEach((relativePath, code) -> failures.add(compileUnder(null, Map.of(relativePath, code), errors)));
+        failures.removeIf(Objects::isNull);
+        return new Result(errors, (System.nanoTime() - start) / 1_000_000, failures.isEmpty() ? null : failures.get(0));
+    }
+
+    /**
+     * Compiles changes under one source root (or a file outside any, with a null root) and their dependents,
+     * adding the errors to {@code errors}. Returns null, or why the compiler could not check them.
+     */
+    private String compileUnder(Path sourceRoot, Map<String, String> changes, List<Problem> errors) {
+        List<JavaFileObject> units = new ArrayList<>();
+        Set<String> replaced = new HashSet<>();
+        Set<Path> changed = new HashSet<>();
+        changes.forEach((relativePath, code) -> {
+            units.add(new SimpleJavaFileObject(URI.create("string:///" + relativePath.replace('\\', '/')),
+                    JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return code;
+                }
+            });
+            changed.add(repoRoot.resolve(relativePath).normalize());
+        });
+        ProjectClasses project = sourceRoot == null ? null : projectClasses(sourceRoot);
+        StandardJavaFileManager standard = fileManagers.get();
+        if (sourceRoot != null) {
+            List<File> dependents = new ArrayList<>();
+            for (Path file : changed) {
+                replaced.add(binaryName(sourceRoot, file));
+                for (Path user : repoManager.findDependents(file, 1)) {
+                    if (user.startsWith(sourceRoot) && !changed.contains(user) && Files.isRegularFile(user)
+                            && replaced.add(binaryName(sourceRoot, user))) {
+                        dependents.add(user.toFile());
+                    }
+                }
+            }
+            standard.getJavaFileObjectsFromFiles(dependents).forEach(units::add);
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try {
+            standard.setLocation(StandardLocation.SOURCE_PATH,
+                    sourceRoot == null || project.available() ? List.of() : List.of(sourceRoot.toFile()));
+            JavaFileManager fileManager = project != null && project.available()
+                    ? new MemoryFileManager(standard, project, replaced, null, null)
+                    : new MemoryFileManager(standard, null, Set.of(), null, null);
+            compiler.getTask(null, fileManager, diagnostics, checkOptions, null, units).call();
+        } catch (IOException | RuntimeException e) {
+            // javac reports a crash in the compiler itself this way: the code is unverified, not known to be bad.
+            System.err.println("[Compile] Compiler failed on " + changes.keySet() + ": " + e);
+            return "compiler failed: " + e;
+        }
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR) {
+                String source = d.getSource() == null ? String.join(", ", changes.keySet())
+                        : Path.of(d.getSource().getName()).getFileName().toString();
+                errors.add(new Problem(source, Math.max(0, d.getLineNumber()), d.getCode(), d.getMessage(Locale.ROOT)));
+            }
+        }
+        return null;
+    }
+
+    /** Top-level class name of {@code file} under {@code sourceRoot}, from its path. */
+    private static String binaryName(Path sourceRoot, Path file) {
+        return sourceRoot.relativize(file).toString().replaceFirst("\\.java$", "").replace(File.separatorChar, '.');
+    }
+
+    /** Error keys of the files as they are on disk, compiled the same way; cached by their content. */
+    private Set<String> baseline(Set<String> relativePaths) {
+        Map<String, String> originals = new LinkedHashMap<>();
+        StringBuilder cacheKey = new StringBuilder();
+        for (String relativePath : relativePaths.stream().sorted().toList()) {
+            try {
+                String original = Files.readString(repoRoot.resolve(relativePath));
+                originals.put(relativePath, original);
+                cacheKey.append(relativePath).append('@').append(PromptCache.keyFor(original)).append(';');
+            } catch (IOException e) {
+                // a new file has no errors to tolerate
+            }
+        }
+        if (originals.isEmpty()) {
+            return Set.of();
+        }
+        synchronized (baselines) {
+            Set<String> cached = baselines.get(cacheKey.toString());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Set<String> keys = compile(originals).errors().stream().map(CompileValidator::key)
+                .collect(Collectors.toUnmodifiableSet());
+        synchronized (baselines) {
+            baselines.put(cacheKey.toString(), keys);
+        }
+        return keys;
+    }
+
+    /** Line numbers shift with any edit, so errors are compared by file, code and message only. */
+    private static String key(Problem problem) {
+        return problem.source() + "|" + problem.code() + "|" + problem.message();
+    }
+
+    /** The directory the file's package hangs off. */
+    private Path sourceRoot(String relativePath, String packageName) {
+        Path dir = repoRoot.resolve(relativePath).normalize().getParent();
+        if (!packageName.isEmpty()) {
+            for (int i = packageName.split("\\.").length; i > 0 && dir != null; i--) {
+                dir = dir.getParent();
+            }
+        }
+        return dir != null && dir.startsWith(repoRoot) ? dir : null;
+    }
+
+    /**
+     * Class files of every source under one root, compiled at {@code commit}, and the source (relative to the
+     * repository) each came from; {@code classes} is null when that failed.
+     */
+    private record ProjectClasses(String commit, Map<String, byte[]> classes, Map<String, String> origins,
+            Map<String, List<String>> byPackage) {
+
+        static ProjectClasses unavailable(String commit) {
+            return new ProjectClasses(commit, null, null, null);
+        }
+
+        boolean available() {
+            return classes != null;
+        }
+    }
+
+    /**
+     * The in-memory build of {@code sourceRoot} for the current commit. It is compiled on first use and then
+     * carried forward from commit to commit; see {@link #updateProject}.
+     */
+    private ProjectClasses projectClasses(Path sourceRoot) {
+        Git git = Git.forRepo(repoRoot.toString());
+        String head = git.resolve("HEAD");
+        ProjectClasses cached = projects.get(sourceRoot);
+        if (cached != null && head != null && head.equals(cached.commit())) {
+            return cached;
+        }
+        synchronized (projects) {
+            cached = projects.get(sourceRoot);
+            if (cached == null || head == null || !head.equals(cached.commit())) {
+                ProjectClasses updated = cached != null && cached.available() && head != null
+                        ? updateProject(git, sourceRoot, cached, head) : null;
+                cached = updated != null ? updated : buildProject(git, sourceRoot, head);
+                projects.put(sourceRoot, cached);
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Compiles every source under {@code sourceRoot} as committed at {@code head}, so uncommitted edits in the
+     * checkout never end up in a build labelled with a commit. Without git the working tree is all there is.
+     */
+    private ProjectClasses buildProject(Git git, Path sourceRoot, String head) {
+        long start = System.nanoTime();
+        StandardJavaFileManager standard = fileManagers.get();
+        List<JavaFileObject> sources = new ArrayList<>();
+        if (head == null) {
+            try (Stream<Path> walk = Files.walk(sourceRoot)) {
+                standard.getJavaFileObjectsFromFiles(walk.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p))
+                        .map(Path::toFile).toList()).forEach(sources::add);
+            } catch (IOException e) {
+                return ProjectClasses.unavailable(head);
+            }
+        } else {
+            Git.Result tree = git.run("ls-tree", "-r", "-z", "--name-only", head, "--", pathspec(sourceRoot));
+            if (!tree.ok()) {
+                return ProjectClasses.unavailable(head);
+            }
+            for (String path : tree.stdout().split("\0")) {
+                if (path.endsWith(".java")) {
+                    git.readObject(head + ":" + path).ifPresent(blob -> sources.add(new CommittedSource(path, blob.content())));
+                }
+            }
+        }
+        Map<String, byte[]> classes = new HashMap<>();
+        Map<String, String> origins = new HashMap<>();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean ok = compileInto(sources, null, Set.of(), classes, origins, diagnostics);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (!ok) {
+            long errors = diagnostics.getDiagnostics().stream().filter(d -> d.getKind() == Diagnostic.Kind.ERROR).count();
+            System.out.println("[Compile] " + repoRoot.relativize(sourceRoot) + " does not compile here (" + errors
+                    + " errors, " + millis + " ms); candidates are resolved from sources instead");
+            return ProjectClasses.unavailable(head);
+        }
+        System.out.println("[Compile] Compiled " + sources.size() + " files under " + repoRoot.relativize(sourceRoot)
+                + " into memory in " + millis + " ms");
+        return new ProjectClasses(head, classes, origins, byPackage(classes));
+    }
+
+    /**
+     * Carries {@code cached} forward to {@code head}: the classes of sources the commits in between changed or
+     * deleted are dropped, and the changed sources are recompiled against the rest. Null when the range cannot
+     * be diffed or the changed sources do not compile that way, in which case the root is built again.
+     */
+    private ProjectClasses updateProject(Git git, Path sourceRoot, ProjectClasses cached, String head) {
+        long start = System.nanoTime();
+        Git.Result diff = git.run("diff", "--name-only", "--no-renames", "-z", cached.commit(), head, "--",
+                pathspec(sourceRoot));
+        if (!diff.ok()) {
+            return null;
+        }
+        Set<String> changed = new HashSet<>();
+        for (String path : diff.stdout().split("\0")) {
+            if (path.endsWith(".java")) {
+                changed.add(path);
+            }
+        }
+        if (changed.isEmpty()) {
+            return new ProjectClasses(head, cached.classes(), cached.origins(), cached.byPackage());
+        }
+        Map<String, byte[]> classes = new HashMap<>(cached.classes());
+        Map<String, String> origins = new HashMap<>(cached.origins());
+        Set<String> stale = origins.entrySet().stream().filter(origin -> changed.contains(origin.getValue()))
+                .map(Map.Entry::getKey).collect(Collectors.toSet());
+        classes.keySet().removeAll(stale);
+        origins.keySet().removeAll(stale);
+        Set<String> replaced = new HashSet<>();
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (String path : changed) {
+            replaced.add(binaryName(sourceRoot, repoRoot.resolve(path).normalize()));
+            git.readObject(head + ":" + path).ifPresent(blob -> sources.add(new CommittedSource(path, blob.content())));
+        }
+        ProjectClasses rest = new ProjectClasses(cached.commit(), classes, origins, byPackage(classes));
+        Map<String, byte[]> compiled = new HashMap<>();
+        if (!sources.isEmpty() && !compileInto(sources, rest, replaced, compiled, origins, new DiagnosticCollector<>())) {
+            return null;
+        }
+        classes.putAll(compiled);
+        System.out.println("[Compile] Updated " + changed.size() + " changed files under " + repoRoot.relativize(sourceRoot)
+                + " in memory in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return new ProjectClasses(head, classes, origins, byPackage(classes));
+    }
+
+    /** Compiles {@code sources} into {@code sink}, recording in {@code origins} which committed source each class came from. */
+    private boolean compileInto(List<JavaFileObject> sources, ProjectClasses project, Set<String> replaced,
+            Map<String, byte[]> sink, Map<String, String> origins, DiagnosticCollector<JavaFileObject> diagnostics) {
+        StandardJavaFileManager standard = fileManagers.get();
+        try {
+            standard.setLocation(StandardLocation.SOURCE_PATH, List.of());
+            return compiler.getTask(null, new MemoryFileManager(standard, project, replaced, sink, origins), diagnostics,
+                    options, null, sources).call();
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Map<String, List<String>> byPackage(Map<String, byte[]> classes) {
+        Map<String, List<String>> byPackage = new HashMap<>();
+        for (String name : classes.keySet()) {
+            int dot = name.lastIndexOf('.');
+            byPackage.computeIfAbsent(dot < 0 ? "" : name.substring(0, dot), k -> new ArrayList<>()).add(name);
+        }
+        return byPackage;
+    }
+
+    /** {@code sourceRoot} as a git pathspec relative to the repository. */
+    private String pathspec(Path sourceRoot) {
+        String relative = repoRoot.relativize(sourceRoot).toString().replace(File.separatorChar, '/');
+        return relative.isEmpty() ? "." : relative;
+    }
+
+    private StandardJavaFileManager newFileManager() {
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+        try {
+            fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid nexusmind.compile.classpath: " + classpath, e);
+        }
+        return fileManager;
+    }
+
+    /**
+     * Keeps compiler output in memory: into {@code sink} when given, otherwise nowhere; {@code origins} then
+     * learns which {@link CommittedSource} each class came from. With {@code project} set, its class files join
+     * the class path, except those of {@code replaced}, the top-level classes being recompiled (and their nested
+     * classes).
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        private final ProjectClasses project;
+        private final Set<String> replaced;
+        private final Map<String, byte[]> sink;
+        private final Map<String, String> origins;
+
+        MemoryFileManager(JavaFileManager fileManager, ProjectClasses project, Set<String> replaced,
+                Map<String, byte[]> sink, Map<String, String> origins) {
+            super(fileManager);
+            this.project = project;
+            this.replaced = replaced;
+            this.sink = sink;
+            this.origins = origins;
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds,
+                boolean recurse) throws IOException {
+            Iterable<JavaFileObject> listed = super.list(location, packageName, kinds, recurse);
+            if (project == null || location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS)) {
+                return listed;
+            }
+            List<JavaFileObject> merged = new ArrayList<>();
+            listed.forEach(merged::add);
+            for (String name : project.byPackage().getOrDefault(packageName, List.of())) {
+                int nested = name.indexOf('$');
+                if (!replaced.contains(nested < 0 ? name : name.substring(0, nested))) {
+                    merged.add(new ClassFile(name, project.classes().get(name)));
+                }
+            }
+            return merged;
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            return file instanceof ClassFile classFile ? classFile.binaryName : super.inferBinaryName(location, file);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    if (sink == null || kind != Kind.CLASS) {
+                        return OutputStream.nullOutputStream();
+                    }
+                    if (origins != null && sibling instanceof CommittedSource source) {
+                        origins.put(className, source.path);
+                    }
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() {
+                            sink.put(className, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            // the underlying file manager stays open for the next compile
+        }
+    }
+
+    /** A source as committed, rather than as it is in the working tree; {@code path} is relative to the repository. */
+    private static final class CommittedSource extends SimpleJavaFileObject {
+
+        private final String path;
+        private final byte[] content;
+
+        CommittedSource(String path, byte[] content) {
+            super(URI.create("string:///" + path), Kind.SOURCE);
+            this.path = path;
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+
+        private final String binaryName;
+        private final byte[] bytes;
+
+        ClassFile(String binaryName, byte[] bytes) {
+            super(URI.create("mem:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.nexusmind;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FeatureCreatorAgent {
@@ -15,8 +16,9 @@ public class FeatureCreatorAgent {
         this.checkpointManager = checkpointManager;
     }
 
-    public void createFeaturesFromSuggestions(List<String> suggestions) {
-        int createdCount = 0;
+    /** Creates a skeleton class per valid suggestion and returns the absolute paths of the files written. */
+    public List<String> createFeaturesFromSuggestions(List<String> suggestions) {
+        List<String> created = new ArrayList<>();
 
         for (String suggestion : suggestions) {
             String cleanedSuggestion = cleanSuggestionText(suggestion);
@@ -40,7 +42,7 @@ public class FeatureCreatorAgent {
 
                 try (FileWriter writer = new FileWriter(newClassFile)) {
                     writer.write(generateClassSkeleton(className));
-                    createdCount++;
+                    created.add(newClassFile.getAbsolutePath());
                     System.out.println("Created new AI agent: " + className);
                 } catch (IOException e) {
                     System.err.println("Failed to create feature class: " + className + " -> " + e.getMessage());
@@ -48,9 +50,11 @@ public class FeatureCreatorAgent {
             }
         }
 
-        if (createdCount > 0) {
+        if (!created.isEmpty()) {
+            RepoScanner.forRoot(repoManager.getLocalPath()).invalidate();
             checkpointManager.saveCheckpoint(null, checkpointManager.getIteration() + 1);
         }
+        return created;
     }
 
     private String cleanSuggestionText(String suggestion) {
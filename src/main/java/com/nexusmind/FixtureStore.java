@@ -0,0 +1,174 @@
+package com.nexusmind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Record/replay fixtures for everything NexusMind sends to the outside world: model prompts and HTTP calls
+ * to GitHub and Slack.
+ * <p>
+ * In {@code record} mode every exchange is appended to a JSON Lines file as it completes. In {@code replay}
+ * mode the file is loaded once and exchanges are served back by exact request key; when the request changed
+ * (the tree evolved differently) the next unused exchange of the same group is served instead, so a whole
+ * cycle can still run offline. Selected with {@code nexusmind.fixtures.mode} and {@code nexusmind.fixtures.file}.
+ */
+public final class FixtureStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureStore.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int PREVIEW_CHARS = 200;
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    /**
+     * One recorded call. {@code key} identifies the exact request, {@code group} the kind of request it can
+     * stand in for (e.g. {@code llm}, or HTTP method plus URL).
+     */
+    public record Exchange(String kind, String group, String key, String requestPreview,
+            String response, int status, String error, long latencyMillis) {
+    }
+
+    private static volatile FixtureStore shared;
+
+    private final Mode mode;
+    private final Path file;
+    private final List<Exchange> exchanges = new ArrayList<>();
+    private final boolean[] used;
+    private int exactHits;
+    private int fallbackHits;
+    private int misses;
+
+    FixtureStore(Mode mode, Path file) {
+        this.mode = mode;
+        this.file = file;
+        if (mode == Mode.REPLAY) {
+            load();
+        }
+        this.used = new boolean[exchanges.size()];
+    }
+
+    public static FixtureStore shared() {
+        if (shared == null) {
+            synchronized (FixtureStore.class) {
+                if (shared == null) {
+                    shared = new FixtureStore(Mode.valueOf(NexusMindConfig.fixtureMode().toUpperCase()),
+                            Path.of(NexusMindConfig.fixtureFile()));
+                }
+            }
+        }
+        return shared;
+    }
+
+    public boolean recording() {
+        return mode == Mode.RECORD;
+    }
+
+    public boolean replaying() {
+        return mode == Mode.REPLAY;
+    }
+
+    /** Appends one exchange to the fixture file; a no-op unless recording. */
+    public synchronized void record(String kind, String group, String key, String request,
+            String response, int status, String error, long latencyMillis) {
+        if (mode != Mode.RECORD) {
+            return;
+        }
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("kind", kind);
+        node.put("group", group);
+        node.put("key", key);
+        node.put("request_preview", request == null || request.length() <= PREVIEW_CHARS
+                ? request : request.substring(0, PREVIEW_CHARS));
+        node.put("response", response);
+        node.put("status", status);
+        node.put("error", error);
+        node.put("latency_ms", latencyMillis);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(MAPPER.writeValueAsString(node));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to record fixture to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the exchange to replay: the first unused one with the same key, else the last one with that key
+     * (repeated requests), else the first unused one of the same group.
+     */
+    public synchronized Optional<Exchange> take(String group, String key) {
+        int reuse = -1;
+        for (int i = 0; i < exchanges.size(); i++) {
+            if (exchanges.get(i).key().equals(key)) {
+                if (!used[i]) {
+                    used[i] = true;
+                    exactHits++;
+                    return Optional.of(exchanges.get(i));
+                }
+                reuse = i;
+            }
+        }
+        if (reuse >= 0) {
+            exactHits++;
+            return Optional.of(exchanges.get(reuse));
+        }
+        for (int i = 0; i < exchanges.size(); i++) {
+            if (!used[i] && exchanges.get(i).group().equals(group)) {
+                used[i] = true;
+                fallbackHits++;
+                return Optional.of(exchanges.get(i));
+            }
+        }
+        misses++;
+        return Optional.empty();
+    }
+
+    public synchronized String summary() {
+        return "%d exact, %d by group, %d missed (of %d recorded)".formatted(exactHits, fallbackHits, misses, exchanges.size());
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            logger.warn("Fixture file {} not found; replaying with defaults only", file);
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                exchanges.add(new Exchange(
+                        node.path("kind").asText(),
+                        node.path("group").asText(),
+                        node.path("key").asText(),
+                        node.path("request_preview").asText(null),
+                        node.path("response").asText(null),
+                        node.path("status").asInt(0),
+                        node.path("error").asText(null),
+                        node.path("latency_ms").asLong(0)));
+            }
+            logger.info("Loaded {} fixtures from {}", exchanges.size(), file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load fixtures from " + file + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.nexusmind;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Single access point to git for one repository.
+ * <p>
+ * Commands run with a timeout and return a typed {@link Result}; their output is captured (stderr is printed
+ * only on failure) and a command that overruns is killed. Lookups that used to fork {@code git rev-parse} or
+ * {@code git cat-file} per call go through long-lived {@code git cat-file --batch-check} / {@code --batch}
+ * pipes, and the current branch is read from {@code HEAD} in-process. One instance is shared per repository
+ * root through {@link #forRepo(String)}.
+ */
+public final class Git implements AutoCloseable {
+
+    private static final Map<Path, Git> REPOS = new ConcurrentHashMap<>();
+    private static final ExecutorService IO = Executors.newVirtualThreadPerTaskExecutor();
+    private static final long DRAIN_MILLIS = 5_000;
+
+    /** Outcome of one git command; {@code exitCode} is -1 when it could not be started or was killed. */
+    public record Result(List<String> command, int exitCode, String stdout, String stderr, long millis, boolean timedOut) {
+
+        public boolean ok() {
+            return exitCode == 0 && !timedOut;
+        }
+
+        /** Returns this result when the command succeeded, otherwise throws a {@link GitException}. */
+        public Result orThrow() {
+            if (!ok()) {
+                throw new GitException(this);
+            }
+            return this;
+        }
+
+        public String describe() {
+            int skip = command.size() > 2 && command.get(1).equals("-C") ? 3 : 1;
+            String what = "git " + String.join(" ", command.subList(Math.min(skip, command.size()), command.size()));
+            if (timedOut) {
+                return what + " timed out after " + millis + " ms";
+            }
+            return what + " failed with exit code " + exitCode + (stderr.isBlank() ? "" : ": " + stderr.strip());
+        }
+    }
+
+    /** An object read from the repository database. */
+    public record GitObject(String id, String type, byte[] content) {
+    }
+
+    private final Path root;
+    private final BatchPipe batchCheck = new BatchPipe("--batch-check");
+    private final BatchPipe batch = new BatchPipe("--batch");
+
+    private Git(Path root) {
+        this.root = root;
+    }
+
+    public static Git forRepo(String path) {
+        return REPOS.computeIfAbsent(Path.of(path).toAbsolutePath().normalize(), Git::new);
+    }
+
+    /** Closes the pipes of every repository opened in this JVM. */
+    public static void closeAll() {
+        REPOS.values().forEach(Git::close);
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /** Local command ({@code nexusmind.git.timeoutSeconds}, default 120). */
+    public static Duration localTimeout() {
+        return Duration.ofSeconds(NexusMindConfig.getInt("nexusmind.git.timeoutSeconds", 120));
+    }
+
+    /** Command that talks to the remote ({@code nexusmind.git.networkTimeoutSeconds}, default 600). */
+    public static Duration networkTimeout() {
+        return Duration.ofSeconds(NexusMindConfig.getInt("nexusmind.git.networkTimeoutSeconds", 600));
+    }
+
+    /** Runs {@code git -C <root> args} with the local timeout. */
+    public Result run(String... args) {
+        return run(localTimeout(), args);
+    }
+
+    public Result run(Duration timeout, String... args) {
+        return exec(inRepo(args), Map.of(), timeout, null, null);
+    }
+
+    /** Runs a command feeding {@code input} to its stdin. */
+    public Result runWithInput(Duration timeout, byte[] input, String... args) {
+        return exec(inRepo(args), Map.of(), timeout, input, null);
+    }
+
+    /** Runs a command with extra environment variables, e.g. {@code GIT_INDEX_FILE} for a private index. */
+    public Result runWithEnv(Map<String, String> env, byte[] input, String... args) {
+        return exec(inRepo(args), env, localTimeout(), input, null);
+    }
+
+    /** Runs a command handing each stdout line to {@code lines} as it arrives; the result's stdout stays empty. */
+    public Result stream(Duration timeout, Consumer<String> lines, String... args) {
+        return exec(inRepo(args), Map.of(), timeout, null, lines);
+    }
+
+    /** Clones {@code url} into {@code path}; {@code options} go between {@code clone} and the URL. */
+    public static Result cloneRepo(String url, String path, Duration timeout, String... options) {
+        List<String> command = new ArrayList<>(List.of("git", "clone"));
+        command.addAll(Arrays.asList(options));
+        command.add(url);
+        command.add(path);
+        return exec(command, Map.of(), timeout, null, null);
+    }
+
+    /** Object id of {@code rev}, or null when it does not resolve. */
+    public String resolve(String rev) {
+        String header = batchCheck.header(rev);
+        return header == null || header.endsWith(" missing") || header.endsWith(" ambiguous")
+                ? null : header.substring(0, header.indexOf(' '));
+    }
+
+    /** Reads an object (blob, tree, commit, tag) by revision expression, e.g. {@code HEAD:pom.xml}. */
+    public Optional<GitObject> readObject(String rev) {
+        return Optional.ofNullable(batch.read(rev));
+    }
+
+    /**
+     * The checked-out branch read from {@code HEAD} without forking, or null when HEAD is detached or the
+     * repository layout is not understood.
+     */
+    public String currentBranch() {
+        try {
+            Path dotGit = root.resolve(".git");
+            Path gitDir = dotGit;
+            if (Files.isRegularFile(dotGit)) {
+                String pointer = Files.readString(dotGit).trim();
+                if (!pointer.startsWith("gitdir:")) {
+                    return null;
+                }
+                gitDir = root.resolve(pointer.substring("gitdir:".length()).trim());
+            }
+            String head = Files.readString(gitDir.resolve("HEAD")).trim();
+            return head.startsWith("ref: refs/heads/") ? head.substring("ref: refs/heads/".length()) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean branchExists(String branch) {
+        return resolve("refs/heads/" + branch) != null;
+    }
+
+    /** Whether objects may be missing locally and fetched on demand, as in a {@code --filter} clone. */
+    public boolean isPartialClone() {
+        Result promisors = run("config", "--get-regexp", "^remote\\..*\\.promisor$");
+        return promisors.ok() && promisors.stdout().lines().anyMatch(line -> line.endsWith(" true"));
+    }
+
+    /** Whether the index differs from HEAD. */
+    public boolean hasStagedChanges() {
+        Result result = run("diff", "--cached", "--quiet");
+        if (result.exitCode() != 0 && result.exitCode() != 1) {
+            throw new GitException(result);
+        }
+        return result.exitCode() == 1;
+    }
+
+    @Override
+    public void close() {
+        batchCheck.close();
+        batch.close();
+    }
+
+    private List<String> inRepo(String... args) {
+        List<String> command = new ArrayList<>(args.length + 3);
+        command.add("git");
+        command.add("-C");
+        command.add(root.toString());
+        command.addAll(Arrays.asList(args));
+        return command;
+    }
+
+    private static Result exec(List<String> command, Map<String, String> env, Duration timeout, byte[] input,
+            Consumer<String> lines) {
+        long start = System.nanoTime();
+        Process process;
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.environment().putAll(env);
+            process = builder.start();
+        } catch (IOException e) {
+            return new Result(command, -1, "", e.getMessage(), 0, false);
+        }
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> readAll(process.getErrorStream()), IO);
+        CompletableFuture<String> stdout = CompletableFuture.supplyAsync(() -> {
+            if (lines == null) {
+                return readAll(process.getInputStream());
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.accept(line);
+                }
+            } catch (IOException e) {
+                // process killed
+            }
+            return "";
+        }, IO);
+        CompletableFuture.runAsync(() -> {
+            try (OutputStream in = process.getOutputStream()) {
+                if (input != null) {
+                    in.write(input);
+                }
+            } catch (IOException e) {
+                // process exited early; its exit code tells why
+            }
+        }, IO);
+        boolean timedOut = false;
+        try {
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+                kill(process);
+                process.waitFor();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            kill(process);
+            timedOut = true;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(List.copyOf(command), timedOut ? -1 : process.exitValue(), drained(stdout), drained(stderr),
+                millis, timedOut);
+    }
+
+    /**
+     * Kills the process and everything it started. Helpers such as {@code ssh} or {@code git-remote-https}
+     * hold the output pipes too, so killing git alone would leave the readers waiting on them.
+     */
+    private static void kill(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Output read so far, waiting at most {@link #DRAIN_MILLIS}: a helper that outlived git (or escaped the
+     * kill) may keep the pipe open indefinitely, and its reader is then left behind on its virtual thread.
+     */
+    private static String drained(CompletableFuture<String> output) {
+        try {
+            return output.get(DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+
+    private static String readAll(InputStream stream) {
+        try (stream) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * One long-lived {@code git cat-file} process answering a request per line. A request that overruns the
+     * local timeout kills the process, which is restarted on the next request.
+     */
+    private final class BatchPipe {
+
+        private final String mode;
+        private Process process;
+        private OutputStream requests;
+        private BufferedInputStream replies;
+        private long requestCount;
+        private volatile long activeRequest;
+
+        BatchPipe(String mode) {
+            this.mode = mode;
+        }
+
+        /** Header line for {@code rev}: {@code <id> <type> <size>}, or {@code <rev> missing}. */
+        synchronized String header(String rev) {
+            return exchange(rev, false) instanceof String header ? header : null;
+        }
+
+        synchronized GitObject read(String rev) {
+            return exchange(rev, true) instanceof GitObject object ? object : null;
+        }
+
+        private Object exchange(String rev, boolean withContent) {
+            if (rev.isBlank() || rev.indexOf('\n') >= 0) {
+                return null;
+            }
+            long ticket = ++requestCount;
+            try {
+                Process watched = ensureStarted();
+                activeRequest = ticket;
+                CompletableFuture.delayedExecutor(localTimeout().toMillis(), TimeUnit.MILLISECONDS, IO).execute(() -> {
+                    if (activeRequest == ticket) {
+                        watched.destroyForcibly();
+                    }
+                });
+                requests.write((rev + "\n").getBytes(StandardCharsets.UTF_8));
+                requests.flush();
+                String header = readLine();
+                if (!withContent || header.endsWith(" missing") || header.endsWith(" ambiguous")) {
+                    return withContent ? null : header;
+                }
+                String[] parts = header.split(" ");
+                byte[] content = replies.readNBytes(Integer.parseInt(parts[2]));
+                replies.read();
+                return new GitObject(parts[0], parts[1], content);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[Git] cat-file " + mode + " pipe failed for " + rev + ": " + e.getMessage());
+                close();
+                return null;
+            } finally {
+                activeRequest = 0;
+            }
+        }
+
+        private Process ensureStarted() throws IOException {
+            if (process == null || !process.isAlive()) {
+                process = new ProcessBuilder("git", "-C", root.toString(), "cat-file", mode)
+                        .redirectError(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                requests = process.getOutputStream();
+                replies = new BufferedInputStream(process.getInputStream());
+            }
+            return process;
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+            int b;
+            while ((b = replies.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("cat-file exited");
+                }
+                line.write(b);
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        synchronized void close() {
+            if (process != null) {
+                try {
+                    requests.close();
+                } catch (IOException e) {
+                    // already gone
+                }
+                process.destroy();
+                process = null;
+            }
+        }
+    }
+}
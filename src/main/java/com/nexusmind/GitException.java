@@ -0,0 +1,21 @@
+package com.nexusmind;
+
+/**
+ * Signals a git command that failed, timed out or could not be started; carries the command's result
+ * (not serialized, so {@link #result()} is null on a deserialized copy).
+ */
+public class GitException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Git.Result result;
+
+    public GitException(Git.Result result) {
+        super(result.describe());
+        this.result = result;
+    }
+
+    public Git.Result result() {
+        return result;
+    }
+}
@@ -1,10 +1,7 @@
 package com.nexusmind;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 public class GitHubIssueManager {
 
@@ -19,11 +16,7 @@ public class GitHubIssueManager {
     }
 
     private String loadGithubToken() {
-        try {
-            return new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get("C:/nexusmind_secrets/github_token.txt"))).trim();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load GitHub Token from file: " + e.getMessage());
-        }
+        return NexusMindConfig.readSecret("github_token.txt");
     }
 
     public void createIssue(String title, String body) {
@@ -33,25 +26,18 @@ public class GitHubIssueManager {
                 title = title.substring(0, 250) + "...";
             }
 
-            URL url = new URL("https://api.github.com/repos/" + githubRepoOwner + "/" + githubRepoName + "/issues");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Authorization", "Bearer " + githubToken);
-            connection.setRequestProperty("Accept", "application/vnd.github+json");
-            connection.setDoOutput(true);
-
+            String url = "https://api.github.com/repos/" + githubRepoOwner + "/" + githubRepoName + "/issues";
             String jsonPayload = String.format(
                     "{\"title\":\"%s\",\"body\":\"%s\"}",
                     title.replace("\"", "\\\""),
                     body.replace("\"", "\\\"")
             );
 
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            int responseCode = connection.getResponseCode();
+            int responseCode = HttpGateway.send("github create issue", "POST", url,
+                    githubToken == null
+                            ? Map.of("Accept", "application/vnd.github+json")
+                            : Map.of("Authorization", "Bearer " + githubToken, "Accept", "application/vnd.github+json"),
+                    jsonPayload).status();
             if (responseCode != 201) {
                 throw new RuntimeException("Failed to create GitHub Issue. HTTP code: " + responseCode);
             }
@@ -2,51 +2,53 @@ package com.nexusmind;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class GitManager {
 
     private final String localRepoPath;
+    private final Git git;
+    private final BranchEvolutionManager branchManager;
+    private final PushWorker pushWorker;
     private final String githubRepoOwner;
     private final String githubRepoName;
     private final String githubToken;
 
     public GitManager(String localRepoPath) {
         this.localRepoPath = localRepoPath;
+        this.git = Git.forRepo(localRepoPath);
+        this.branchManager = new BranchEvolutionManager(localRepoPath);
+        this.pushWorker = new PushWorker(git);
         this.githubRepoOwner = "glacious83";
         this.githubRepoName = "NexusMind";
         this.githubToken = loadGithubToken();
     }
 
     private String loadGithubToken() {
-        File file = new File("C:/nexusmind_secrets/github_token.txt"); // <-- Your real local path
-        try {
-            return new String(Files.readAllBytes(file.toPath())).trim();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load GitHub Token from file: " + e.getMessage());
-        }
+        return NexusMindConfig.readSecret("github_token.txt");
     }
 
-    public void addCommitPush(String commitMessage) {
-        BranchEvolutionManager branchManager = new BranchEvolutionManager(localRepoPath);
-        String branchName = branchManager.getOrCreateEvolutionBranch();
-
+    /**
+     * Commits exactly {@code files} (paths inside the repository; missing files are recorded as deleted) on the
+     * evolution branch and queues a push; the push itself runs on the {@link PushWorker}. Nothing else in the
+     * working tree or the index can end up in the commit.
+     */
+    public void commitAndPush(List<String> files, String commitMessage) {
         try {
+            String branchName = branchManager.getOrCreateEvolutionBranch();
             System.out.println("Switching to evolution branch: " + branchName);
 
-            runCommand(new String[]{"git", "-C", localRepoPath, "add", "."});
-            // Check if there is anything to commit
-            if (hasChangesToCommit()) {
-                runCommand(new String[]{"git", "-C", localRepoPath, "commit", "-m", commitMessage});
-                runCommand(new String[]{"git", "-C", localRepoPath, "push", "-u", "origin", branchName});
-                System.out.println("Pushed improvements to evolution branch: " + branchName);
-                Notifier.sendSuccess("Pushed improvements to evolution branch: " + branchName + "\nCommit Message: " + commitMessage);
+            String commit = commitFiles(branchName, files, commitMessage);
+            if (commit != null) {
+                pushWorker.request(branchName, commitMessage);
+                System.out.println("Committed " + commit + " on " + branchName + "; push queued");
             } else {
                 System.out.println("No changes to commit. Skipping Git commit and push.");
                 Notifier.sendSuccess("No changes to commit for this cycle. No push performed.");
@@ -59,36 +61,99 @@ public class GitManager {
         }
     }
 
-    private void runCommand(String[] command) throws IOException, InterruptedException {
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.directory(new File(localRepoPath));
-        pb.inheritIO();
-        Process process = pb.start();
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new RuntimeException("Command failed: " + String.join(" ", command));
+    /**
+     * Builds the commit from the given files only, through plumbing: {@code hash-object} stores their current
+     * contents through the path's clean filters and eol conversion as {@code git add} would, a private index
+     * seeded from HEAD gets just those entries ({@code update-index --index-info}), {@code write-tree} and
+     * {@code commit-tree} create the objects and {@code update-ref} moves the branch only if it still points
+     * at the parent. The cost follows the number of files, not the size of the tree; the
+     * working tree is never scanned. Returns the new commit id, or null when the files match HEAD already.
+     */
+    private String commitFiles(String branchName, List<String> files, String commitMessage) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (String file : files) {
+            Path absolute = Path.of(file).toAbsolutePath().normalize();
+            if (!absolute.startsWith(git.root())) {
+                throw new IllegalArgumentException("Not inside the repository: " + file);
+            }
+            paths.add(git.root().relativize(absolute).toString().replace('\\', '/'));
+        }
+        if (paths.isEmpty()) {
+            return null;
+        }
+        String parent = git.resolve("HEAD");
+        Map<String, String> modes = new HashMap<>();
+        if (parent != null) {
+            List<String> lsTree = new ArrayList<>(List.of("ls-tree", "-z", parent, "--"));
+            lsTree.addAll(paths);
+            for (String entry : git.run(lsTree.toArray(String[]::new)).orThrow().stdout().split("\0")) {
+                int tab = entry.indexOf('\t');
+                if (tab > 0) {
+                    modes.put(entry.substring(tab + 1), entry.substring(0, entry.indexOf(' ')));
+                }
+            }
+        }
+
+        List<String> existing = paths.stream().filter(p -> Files.isRegularFile(git.root().resolve(p))).toList();
+        String[] blobs = existing.isEmpty() ? new String[0] : git.runWithInput(Git.localTimeout(),
+                (String.join("\n", existing) + "\n").getBytes(StandardCharsets.UTF_8),
+                "hash-object", "-w", "--stdin-paths").orThrow().stdout().split("\n");
+        StringBuilder indexInfo = new StringBuilder();
+        int blob = 0;
+        for (String path : paths) {
+            if (existing.contains(path)) {
+                indexInfo.append(modes.getOrDefault(path, "100644")).append(' ').append(blobs[blob++].trim());
+            } else {
+                indexInfo.append("0 ").append("0".repeat(40));
+            }
+            indexInfo.append('\t').append(path).append('\n');
+        }
+        byte[] entries = indexInfo.toString().getBytes(StandardCharsets.UTF_8);
+
+        Path privateIndex = Files.createTempFile("nexusmind-index", null);
+        Files.delete(privateIndex);
+        String commit;
+        try {
+            Map<String, String> env = Map.of("GIT_INDEX_FILE", privateIndex.toString());
+            git.runWithEnv(env, null, parent == null ? new String[]{"read-tree", "--empty"} : new String[]{"read-tree", parent}).orThrow();
+            git.runWithEnv(env, entries, "update-index", "--index-info").orThrow();
+            String tree = git.runWithEnv(env, null, "write-tree").orThrow().stdout().trim();
+            if (parent != null && tree.equals(git.resolve(parent + "^{tree}"))) {
+                return null;
+            }
+            commit = (parent == null
+                    ? git.runWithInput(Git.localTimeout(), commitMessage.getBytes(StandardCharsets.UTF_8), "commit-tree", tree)
+                    : git.runWithInput(Git.localTimeout(), commitMessage.getBytes(StandardCharsets.UTF_8), "commit-tree", tree, "-p", parent))
+                    .orThrow().stdout().trim();
+            git.run("update-ref", "-m", "nexusmind: commit", "refs/heads/" + branchName, commit,
+                    parent == null ? "0".repeat(40) : parent).orThrow();
+        } finally {
+            Files.deleteIfExists(privateIndex);
         }
+        // Keep the real index in step for these paths only, so they do not show up as modified.
+        git.runWithInput(Git.localTimeout(), entries, "update-index", "--index-info").orThrow();
+        System.out.println("[Git] Committed " + paths.size() + " files on " + branchName);
+        return commit;
+    }
+
+    public PushWorker pushWorker() {
+        return pushWorker;
+    }
+
+    /** Lets queued pushes finish (up to the network timeout) and stops the push worker. */
+    public void close() {
+        pushWorker.close();
     }
 
     private void createPullRequest(String branchName, String baseBranch) throws IOException {
-        URL url = new URL("https://api.github.com/repos/" + githubRepoOwner + "/" + githubRepoName + "/pulls");
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Authorization", "Bearer " + githubToken);
-        connection.setRequestProperty("Accept", "application/vnd.github+json");
-        connection.setDoOutput(true);
+        String url = "https://api.github.com/repos/" + githubRepoOwner + "/" + githubRepoName + "/pulls";
 
         String jsonPayload = String.format(
                 "{\"title\":\"AI improvements - %s\",\"head\":\"%s\",\"base\":\"%s\"}",
                 branchName, branchName, baseBranch
         );
 
-        try (OutputStream os = connection.getOutputStream()) {
-            byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-        }
-
-        int responseCode = connection.getResponseCode();
+        int responseCode = HttpGateway.send("github create pull request", "POST", url, githubHeaders(), jsonPayload).status();
         if (responseCode != 201) {
             throw new RuntimeException("Failed to create Pull Request. HTTP code: " + responseCode);
         }
@@ -96,16 +161,12 @@ public class GitManager {
 
     private boolean pullRequestExists(String branchName) {
         try {
-            URL url = new URL("https://api.github.com/repos/" + githubRepoOwner + "/" + githubRepoName + "/pulls?head=" + githubRepoOwner + ":" + branchName);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Authorization", "Bearer " + githubToken);
-            connection.setRequestProperty("Accept", "application/vnd.github+json");
-
-            int responseCode = connection.getResponseCode();
+            String url = "https://api.github.com/repos/" + githubRepoOwner + "/" + githubRepoName + "/pulls?head=" + githubRepoOwner + ":" + branchName;
+            HttpGateway.Response response = HttpGateway.send("github list pull requests", "GET", url, githubHeaders(), null);
+            int responseCode = response.status();
 
             if (responseCode == 200) {
-                String responseBody = new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                String responseBody = response.body();
 
                 // Parse the JSON array properly
                 ObjectMapper mapper = new ObjectMapper();
@@ -128,16 +189,10 @@ public class GitManager {
         }
     }
 
-    private boolean hasChangesToCommit() {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("git", "-C", localRepoPath, "diff", "--cached", "--quiet");
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            return exitCode != 0; // if diff --cached is NOT quiet, there are changes
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to check git staged changes: " + e.getMessage(), e);
-        }
+    private Map<String, String> githubHeaders() {
+        return githubToken == null
+                ? Map.of("Accept", "application/vnd.github+json")
+                : Map.of("Authorization", "Bearer " + githubToken, "Accept", "application/vnd.github+json");
     }
 
-
 }
@@ -0,0 +1,202 @@
+package com.nexusmind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks files by how much they change, from one streamed {@code git log --numstat} pass.
+ * <p>
+ * Per file it keeps commit count, lines changed, the time of the last change and how many other files changed
+ * alongside it, in a compact map persisted with the last processed commit. Later updates read only
+ * {@code last..HEAD}, so a 100k-commit history is read once and never held in memory: only the current commit's
+ * file list is buffered. Commits touching more than {@link #MAX_CO_CHANGE_FILES} files (mass renames, formatting)
+ * still count as churn but not as co-change.
+ */
+public class HotnessScorer {
+
+    private static final int MAX_CO_CHANGE_FILES = 50;
+    private static final long RECENCY_HALF_LIFE_SECONDS = 90L * 24 * 60 * 60;
+
+    /** commits, lines changed, last change (epoch seconds), co-changed files. */
+    private static final int COMMITS = 0;
+    private static final int LINES = 1;
+    private static final int LAST_CHANGE = 2;
+    private static final int CO_CHANGES = 3;
+
+    private final Git git;
+    private final Path stateFile;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, long[]> stats = new HashMap<>();
+    private String lastCommit;
+    private long newestChange;
+    private long maxCommits = 1;
+    private long maxLines = 1;
+    private long maxCoChanges = 1;
+
+    public HotnessScorer(String repoPath, Path stateFile) {
+        this.git = Git.forRepo(repoPath);
+        this.stateFile = stateFile;
+        load();
+    }
+
+    /**
+     * Folds the commits between the last processed commit and {@code head} into the statistics. Returns true when
+     * anything changed, i.e. when scores should be recomputed. An unknown last commit (rewritten history) starts over.
+     */
+    public synchronized boolean update(String head) {
+        if (head == null || head.equals(lastCommit)) {
+            return false;
+        }
+        String range = head;
+        if (lastCommit != null) {
+            if (!git.run("merge-base", "--is-ancestor", lastCommit, head).ok()) {
+                System.out.println("[Hotness] " + lastCommit + " is not an ancestor of HEAD; rebuilding history");
+                stats.clear();
+                newestChange = 0;
+            } else {
+                range = lastCommit + ".." + head;
+            }
+        }
+        // --numstat would fetch every historical blob of a partial clone one by one; names come from trees alone.
+        boolean partial = git.isPartialClone();
+        long start = System.nanoTime();
+        List<String> files = new ArrayList<>();
+        long[] time = new long[1];
+        int[] commits = new int[1];
+        Git.Result log = git.stream(Git.localTimeout(), line -> {
+            if (line.startsWith("@")) {
+                recordCommit(files, time[0]);
+                files.clear();
+                time[0] = Long.parseLong(line.substring(line.indexOf(' ') + 1).trim());
+                commits[0]++;
+            } else if (!line.isBlank() && partial) {
+                stats.computeIfAbsent(line, k -> new long[4]);
+                files.add(line);
+            } else if (!line.isBlank()) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length == 3) {
+                    long[] s = stats.computeIfAbsent(parts[2], k -> new long[4]);
+                    s[LINES] += parseCount(parts[0]) + parseCount(parts[1]);
+                    files.add(parts[2]);
+                }
+            }
+        }, "log", partial ? "--name-only" : "--numstat", "--no-renames", "--format=@%H %ct", range);
+        if (!log.ok()) {
+            System.err.println("[Hotness] " + log.describe() + "; rebuilding history next time");
+            stats.clear();
+            lastCommit = null;
+            newestChange = 0;
+            return false;
+        }
+        recordCommit(files, time[0]);
+        lastCommit = head;
+        recomputeMaxima();
+        save();
+        System.out.println("[Hotness] Folded " + commits[0] + " commits in " + (System.nanoTime() - start) / 1_000_000
+                + " ms; tracking " + stats.size() + " files");
+        return commits[0] > 0;
+    }
+
+    /**
+     * Score in [0, 100] for a path relative to the repository root: 40% churn (commits), 20% lines changed,
+     * 30% recency with a 90-day half-life, 10% co-change. Counts are log-scaled against the busiest file.
+     */
+    public synchronized int score(String relativePath) {
+        long[] s = stats.get(relativePath);
+        if (s == null) {
+            return 0;
+        }
+        double churn = Math.log1p(s[COMMITS]) / Math.log1p(maxCommits);
+        double lines = Math.log1p(s[LINES]) / Math.log1p(maxLines);
+        double coChange = Math.log1p(s[CO_CHANGES]) / Math.log1p(maxCoChanges);
+        double recency = Math.pow(0.5, (double) (newestChange - s[LAST_CHANGE]) / RECENCY_HALF_LIFE_SECONDS);
+        return (int) Math.round(40 * churn + 20 * lines + 30 * recency + 10 * coChange);
+    }
+
+    private void recordCommit(List<String> files, long time) {
+        if (files.isEmpty()) {
+            return;
+        }
+        boolean coChange = files.size() > 1 && files.size() <= MAX_CO_CHANGE_FILES;
+        for (String file : files) {
+            long[] s = stats.get(file);
+            s[COMMITS]++;
+            s[LAST_CHANGE] = Math.max(s[LAST_CHANGE], time);
+            if (coChange) {
+                s[CO_CHANGES] += files.size() - 1;
+            }
+        }
+        newestChange = Math.max(newestChange, time);
+    }
+
+    private static long parseCount(String value) {
+        return value.equals("-") ? 0 : Long.parseLong(value);
+    }
+
+    private void recomputeMaxima() {
+        maxCommits = 1;
+        maxLines = 1;
+        maxCoChanges = 1;
+        for (long[] s : stats.values()) {
+            maxCommits = Math.max(maxCommits, s[COMMITS]);
+            maxLines = Math.max(maxLines, s[LINES]);
+            maxCoChanges = Math.max(maxCoChanges, s[CO_CHANGES]);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(stateFile)) {
+            return;
+        }
+        try {
+            JsonNode root = mapper.readTree(stateFile.toFile());
+            lastCommit = root.path("last_commit").asText(null);
+            newestChange = root.path("newest_change").asLong(0);
+            Iterator<Map.Entry<String, JsonNode>> fields = root.path("files").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                long[] s = new long[4];
+                for (int i = 0; i < s.length; i++) {
+                    s[i] = field.getValue().path(i).asLong();
+                }
+                stats.put(field.getKey(), s);
+            }
+            recomputeMaxima();
+        } catch (IOException e) {
+            System.err.println("[Hotness] State unreadable, rebuilding: " + e.getMessage());
+            stats.clear();
+            lastCommit = null;
+        }
+    }
+
+    private void save() {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("last_commit", lastCommit);
+        root.put("newest_change", newestChange);
+        ObjectNode files = root.putObject("files");
+        stats.forEach((path, s) -> {
+            var array = files.putArray(path);
+            for (long value : s) {
+                array.add(value);
+            }
+        });
+        try {
+            Path tmp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            mapper.writeValue(tmp.toFile(), root);
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[Hotness] Failed to save state: " + e.getMessage());
+        }
+    }
+}
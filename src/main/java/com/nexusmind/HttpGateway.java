@@ -0,0 +1,67 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Single path for the plain HTTP calls to GitHub and Slack, so they can be recorded and replayed by
+ * {@link FixtureStore}. In replay mode nothing leaves the machine: recorded responses are served after a
+ * delay drawn from {@code nexusmind.replay.httpLatency}, and unknown requests get a plain success status.
+ */
+public final class HttpGateway {
+
+    public record Response(int status, String body) {
+    }
+
+    private static final LatencyModel REPLAY_LATENCY = LatencyModel.parse(
+            NexusMindConfig.get("nexusmind.replay.httpLatency", "recorded"),
+            NexusMindConfig.getInt("nexusmind.replay.seed", 42));
+
+    private HttpGateway() {
+    }
+
+    /**
+     * Sends {@code body} (may be null) and returns status and response body; never throws on HTTP errors.
+     * {@code group} names the endpoint in fixtures instead of the URL, which may embed a secret.
+     */
+    public static Response send(String group, String method, String url, Map<String, String> headers, String body)
+            throws IOException {
+        FixtureStore fixtures = FixtureStore.shared();
+        String key = PromptCache.keyFor(method + " " + url + "\n" + (body == null ? "" : body));
+        if (fixtures.replaying()) {
+            return fixtures.take(group, key)
+                    .map(exchange -> {
+                        REPLAY_LATENCY.pause(exchange.latencyMillis());
+                        return new Response(exchange.status(), exchange.response() == null ? "" : exchange.response());
+                    })
+                    .orElseGet(() -> new Response("POST".equals(method) ? 201 : 200, "GET".equals(method) ? "[]" : ""));
+        }
+
+        long start = System.nanoTime();
+        Response response = sendLive(method, url, headers, body);
+        fixtures.record("http", group, key, body, response.body(), response.status(), null,
+                (System.nanoTime() - start) / 1_000_000);
+        return response;
+    }
+
+    private static Response sendLive(String method, String url, Map<String, String> headers, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        headers.forEach(connection::setRequestProperty);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream stream = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        String responseBody = stream == null ? "" : new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        return new Response(status, responseBody);
+    }
+}
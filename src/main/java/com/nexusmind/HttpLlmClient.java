@@ -0,0 +1,185 @@
+package com.nexusmind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * {@link LlmClient} that talks to an OpenAI-compatible chat completions endpoint over HTTP/JSON.
+ * Needs no desktop session, so it runs on headless build machines.
+ */
+public class HttpLlmClient implements LlmClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpLlmClient.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final URI endpoint;
+    private final String model;
+    private final String apiKey;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+    private final Executor streamReaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HttpLlmClient(String endpoint, String model, String apiKey, Duration timeout) {
+        this.endpoint = URI.create(endpoint);
+        this.model = model;
+        this.apiKey = apiKey;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /** Reads the API key from {@code path}; a missing file means no key is sent. */
+    static String loadApiKey(String path) {
+        try {
+            Path file = Path.of(path);
+            return Files.exists(file) ? Files.readString(file).trim() : null;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load LLM API key from file: " + e.getMessage(), e);
+        }
+    }
+
+    /** Cancelling the returned future (or a timeout upstream) aborts the HTTP exchange. */
+    @Override
+    public CompletableFuture<LlmResponse> complete(String prompt) {
+        long start = System.nanoTime();
+        HttpRequest request = buildRequest(prompt);
+        CompletableFuture<HttpResponse<String>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return LlmClient.cancelOnFailure(exchange.thenApply(response -> {
+                    long latency = (System.nanoTime() - start) / 1_000_000;
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new IOException(
+                                "LLM endpoint returned HTTP " + response.statusCode() + ": " + response.body()));
+                    }
+                    String text = parseContent(response.body());
+                    logger.info("LLM reply received from {} in {} ms ({} chars)", endpoint, latency, text.length());
+                    return new LlmResponse(text, name(), latency);
+                }), exchange);
+    }
+
+    /**
+     * Streams the reply as server-sent events. Closing the line stream when the listener aborts
+     * cancels the HTTP exchange, which stops the generation server-side. The same happens when the returned
+     * future is cancelled or fails from outside (a timeout upstream): the body is closed, which also wakes the
+     * reader blocked on the next line.
+     */
+    @Override
+    public CompletableFuture<LlmResponse> stream(String prompt, ReplyListener listener) {
+        long start = System.nanoTime();
+        HttpRequest request = buildRequest(prompt, true);
+        CompletableFuture<HttpResponse<Stream<String>>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        CompletableFuture<LlmResponse> reply = exchange.thenApplyAsync(response -> {
+                    try (Stream<String> lines = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new CompletionException(new IOException(
+                                    "LLM endpoint returned HTTP " + response.statusCode()));
+                        }
+                        StringBuilder text = new StringBuilder();
+                        Iterator<String> iterator = lines.iterator();
+                        while (iterator.hasNext()) {
+                            String line = iterator.next();
+                            if (!line.startsWith("data:")) {
+                                continue;
+                            }
+                            String data = line.substring(5).trim();
+                            if (data.equals("[DONE]")) {
+                                break;
+                            }
+                            String delta = parseDelta(data);
+                            if (delta.isEmpty()) {
+                                continue;
+                            }
+                            text.append(delta);
+                            if (!listener.onChunk(delta)) {
+                                logger.info("Aborting streamed reply after {} chars: {}", text.length(), listener.abortReason());
+                                throw new CompletionException(new ReplyAbortedException(listener.abortReason()));
+                            }
+                        }
+                        if (!listener.finish()) {
+                            logger.info("Rejecting streamed reply of {} chars: {}", text.length(), listener.abortReason());
+                            throw new CompletionException(new ReplyAbortedException(listener.abortReason()));
+                        }
+                        long latency = (System.nanoTime() - start) / 1_000_000;
+                        logger.info("LLM streamed reply from {} in {} ms ({} chars)", endpoint, latency, text.length());
+                        return new LlmResponse(text.toString(), name(), latency);
+                    }
+                }, streamReaders);
+        reply.whenComplete((response, error) -> {
+            if (error != null) {
+                exchange.cancel(true);
+                exchange.thenAccept(started -> started.body().close());
+            }
+        });
+        return reply;
+    }
+
+    private HttpRequest buildRequest(String prompt) {
+        return buildRequest(prompt, false);
+    }
+
+    private HttpRequest buildRequest(String prompt, boolean stream) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("model", model);
+        if (stream) {
+            body.put("stream", true);
+        }
+        ObjectNode message = body.putArray("messages").addObject();
+        message.put("role", "user");
+        message.put("content", prompt);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8));
+        if (apiKey != null && !apiKey.isBlank()) {
+            builder.header("Authorization", "Bearer " + apiKey);
+        }
+        return builder.build();
+    }
+
+    private String parseContent(String responseBody) {
+        try {
+            JsonNode content = MAPPER.readTree(responseBody).path("choices").path(0).path("message").path("content");
+            if (content.isMissingNode() || content.isNull()) {
+                throw new CompletionException(new IOException("LLM response has no choices[0].message.content"));
+            }
+            return content.asText();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private String parseDelta(String data) {
+        try {
+            return MAPPER.readTree(data).path("choices").path(0).path("delta").path("content").asText("");
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+}
@@ -3,9 +3,14 @@ package com.nexusmind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Coordinates the AI‐driven improvement of Java source files, extraction of commit messages,
@@ -19,100 +24,208 @@ public class ImprovementAgent {
     private final RepoManager repoManager;
     private final ProjectStructureMapper structureMapper;
     private final ImprovementPromptBuilder promptBuilder;
-    private final AICommunicator aiCommunicator;
-    private final ChatReader chatReader;
+    private final LlmClient llmClient;
     private final GitManager gitManager;
+    private final PromptCache promptCache;
+    private final int packSmallFileTokens;
+    private final List<CandidateCheck> checks = new ArrayList<>();
+    private final WorktreePool worktrees;
+    private final ExecutorService validators;
 
     public ImprovementAgent(CheckpointManager checkpointManager,
             RepoManager repoManager,
-            GitManager gitManager) {
+            GitManager gitManager,
+            LlmClient llmClient,
+            PromptCache promptCache) {
         this.checkpointManager = checkpointManager;
         this.repoManager = repoManager;
         this.gitManager = gitManager;
         this.structureMapper = new ProjectStructureMapper(repoManager.getLocalPath());
-        String projectStructure = structureMapper.generateProjectStructure();
-        this.promptBuilder = new ImprovementPromptBuilder(projectStructure);
-        this.aiCommunicator = new AICommunicator();
-        this.chatReader = new ChatReader();
+        this.promptBuilder = new ImprovementPromptBuilder(structureMapper);
+        this.llmClient = llmClient;
+        this.promptCache = promptCache;
+        this.packSmallFileTokens = NexusMindConfig.getBoolean("nexusmind.pack.enabled", false)
+                ? NexusMindConfig.getInt("nexusmind.pack.smallFileTokens", 800) : 0;
+
+        checks.add((worktree, relativePath, code) ->
+                SimpleJavaValidator.isValidJavaClass(code) ? null : "invalid Java class");
+        CompileValidator compile = CompileValidator.forRepo(repoManager);
+        if (compile != null) {
+            checks.add(compile);
+        }
+        TestImpactGate tests = TestImpactGate.fromConfig(repoManager);
+        if (tests != null) {
+            checks.add(tests);
+        }
+        CommandCheck command = CommandCheck.fromConfig();
+        if (command != null) {
+            checks.add(command);
+        }
+        int parallel = NexusMindConfig.getInt("nexusmind.worktrees",
+                Math.max(1, NexusMindConfig.improveConcurrency()));
+        this.worktrees = new WorktreePool(Git.forRepo(repoManager.getLocalPath()),
+                Path.of(NexusMindConfig.get("nexusmind.worktrees.dir", repoManager.getLocalPath() + "-worktrees")),
+                parallel);
+        this.validators = Executors.newFixedThreadPool(Math.max(1, parallel),
+                Thread.ofPlatform().daemon().name("nexusmind-validate-", 0).factory());
     }
 
     /**
      * Processes up to {@code batchSize} files: prompts the AI, validates output,
      * records valid improvements, and commits them all in one meaningful Git commit.
+     * <p>
+     * Prompts for the whole batch are in flight at once (admitted by the client's adaptive limiter), and each
+     * reply is validated as soon as it arrives, in its own leased worktree when a check needs one. Verdicts
+     * are applied strictly in selection order so the checkpoint and commit stay deterministic. Accepted replies
+     * are checked once more all together before anything is written, since they are committed as one.
      */
     public void improveNextFiles(int batchSize) {
         String lastProcessed = checkpointManager.getLastProcessedFile();
         int iteration = checkpointManager.getIteration();
 
-        List<String> improvedFiles = new ArrayList<>();
-        List<String> commitMessages = new ArrayList<>();
+        List<Candidate> candidates = selectCandidates(batchSize, lastProcessed);
+        if (candidates.isEmpty()) {
+            logger.info("No more files to process.");
+            return;
+        }
+        String base = Git.forRepo(repoManager.getLocalPath()).resolve("HEAD");
+        Set<Candidate> packed = new HashSet<>();
+        List<CompletableFuture<LlmResponse>> replies = requestReplies(candidates, packed);
+        List<CompletableFuture<Verdict>> verdicts = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            // Code accepted for the same prompt earlier is checked again: the rest of the project may have moved.
+            Optional<String> cachedCode = candidate.cached() == null ? Optional.empty()
+                    : promptCache.acceptedCode(candidate.cacheKey());
+            verdicts.add(cachedCode.isPresent()
+                    ? CompletableFuture.supplyAsync(() -> validate(candidate, cachedCode.get(),
+                            candidate.cached().commitMessage(), base), validators)
+                    : replies.get(i).thenApplyAsync(response -> response == null || response.isEmpty()
+                            ? null : validate(candidate, response.text(), base), validators));
+        }
 
-        for (int i = 0; i < batchSize; i++) {
-            String filePath = repoManager.getNextFileToProcess(lastProcessed);
-            if (filePath == null) {
-                logger.info("No more files to process.");
-                break;
-            }
+        // The checkpoint only moves once the accepted files are written, so a crash never skips one of them.
+        List<Accepted> accepted = new ArrayList<>();
 
-            Path path = Paths.get(filePath);
-            if (!Files.exists(path)) {
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            String filePath = candidate.filePath();
+
+            if (candidate.prompt() == null) {
                 logger.warn("File not found, skipping: {}", filePath);
                 lastProcessed = filePath;
-                checkpointManager.saveCheckpoint(lastProcessed, iteration);
                 continue;
             }
 
-            logger.info("Improving file: {}", filePath);
-            String prompt = promptBuilder.buildPromptForFile(path.toFile(),
-                    repoManager.findRelatedDependencies(path.toFile()));
-            aiCommunicator.sendPromptAutomatically("Improve Java Class and Provide Commit Message", prompt);
-
-            chatReader.openExistingSession();
-            try {
-                // TODO: replace sleep with smarter wait-for-response logic
-                Thread.sleep(30_000);
-                String fullResponse = chatReader.fetchLatestCodeBlock();
-                if (fullResponse == null) {
-                    logger.error("AI response timed out for file: {}", filePath);
+            String improvedCode;
+            String commitMsg;
+            if (candidate.cached() != null) {
+                Verdict verdict = verdicts.get(i).join();
+                if (verdict == null) {
+                    logger.info("Skipping {}: unchanged prompt was rejected before ({})",
+                            filePath, candidate.cached().reason());
+                    lastProcessed = filePath;
+                    continue;
+                }
+                if (verdict.unverified()) {
+                    logger.error("Could not validate cached improvement for {} ({}); retrying next cycle",
+                            filePath, verdict.rejection());
                     break;
                 }
-
-                Optional<String> maybeMsg = extractCommitMessage(fullResponse);
-                if (maybeMsg.isEmpty()) {
-                    logger.error("No [COMMIT_MSG] tag in response; skipping: {}", filePath);
+                if (verdict.rejection() != null) {
+                    logger.info("Skipping {}: cached improvement no longer passes ({})", filePath, verdict.rejection());
                     lastProcessed = filePath;
-                    checkpointManager.saveCheckpoint(lastProcessed, iteration);
                     continue;
                 }
-                String commitMsg = maybeMsg.get();
+                logger.info("Reusing cached improvement for unchanged prompt: {}", filePath);
+                improvedCode = verdict.code();
+                commitMsg = verdict.commitMessage();
+            } else {
+                try {
+                    LlmResponse response = replies.get(i).get();
+                    if (response.isEmpty() && packed.contains(candidate)) {
+                        logger.error("No section for file in packed AI response; skipping: {}", filePath);
+                        lastProcessed = filePath;
+                        continue;
+                    }
+                    if (response.isEmpty()) {
+                        logger.error("Empty AI response for file: {}", filePath);
+                        break;
+                    }
 
-                String improvedCode = extractImprovedCode(fullResponse);
-                if (!SimpleJavaValidator.isValidJavaClass(improvedCode)) {
-                    logger.error("AI-produced code invalid for file: {}; skipping", filePath);
-                    lastProcessed = filePath;
-                    checkpointManager.saveCheckpoint(lastProcessed, iteration);
-                    continue;
+                    Verdict verdict = verdicts.get(i).get();
+                    if (verdict.unverified()) {
+                        // Not the model's fault: nothing is cached or reported, and the file is retried next cycle.
+                        logger.error("Could not validate AI reply for file: {} ({}); retrying next cycle",
+                                filePath, verdict.rejection());
+                        break;
+                    }
+                    if (verdict.rejection() != null) {
+                        logger.error("AI reply rejected for file: {} ({}); skipping", filePath, verdict.rejection());
+                        if (!packed.contains(candidate)) {
+                            promptCache.recordRejected(candidate.cacheKey(), verdict.rejection());
+                        }
+                        llmClient.reportInvalidReply(verdict.rejection());
+                        lastProcessed = filePath;
+                        continue;
+                    }
+                    commitMsg = verdict.commitMessage();
+                    improvedCode = verdict.code();
+                    if (!packed.contains(candidate)) {
+                        promptCache.recordAccepted(candidate.cacheKey(), improvedCode, commitMsg);
+                    }
+
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ReplyAbortedException aborted) {
+                        logger.error("AI reply aborted early for file: {} ({}); skipping", filePath, aborted.getMessage());
+                        promptCache.recordRejected(candidate.cacheKey(), aborted.getMessage());
+                        lastProcessed = filePath;
+                        continue;
+                    }
+                    // Later replies are dropped so the checkpoint never skips past an unanswered file.
+                    logger.error("AI response failed or timed out for file: {}", filePath, e.getCause());
+                    break;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    logger.error("Interrupted while waiting for AI response", ie);
+                    break;
                 }
+            }
 
-                Files.writeString(path, improvedCode, StandardOpenOption.TRUNCATE_EXISTING);
+            accepted.add(new Accepted(candidate, improvedCode, commitMsg, lastProcessed));
+            lastProcessed = filePath;
+        }
+
+        // Replies were validated one by one against base; make sure they still pass once applied together.
+        CompletableFuture.allOf(verdicts.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        if (accepted.size() > 1) {
+            Accepted stoppedAt = keepCompatible(accepted, base);
+            if (stoppedAt != null) {
+                lastProcessed = stoppedAt.previous();
+            }
+        }
+
+        List<String> improvedFiles = new ArrayList<>();
+        List<String> commitMessages = new ArrayList<>();
+        for (Accepted change : accepted) {
+            String filePath = change.candidate().filePath();
+            Path path = change.candidate().path();
+            try {
+                Files.writeString(path, change.code(), StandardOpenOption.TRUNCATE_EXISTING);
                 logger.info("File updated: {}", filePath);
                 improvedFiles.add(filePath);
-                commitMessages.add(path.getFileName() + ": " + commitMsg);
-
-                lastProcessed = filePath;
+                commitMessages.add(path.getFileName() + ": " + change.commitMessage());
                 iteration++;
-                checkpointManager.saveCheckpoint(lastProcessed, iteration);
-
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                logger.error("Interrupted while waiting for AI response", ie);
-                break;
             } catch (IOException ioe) {
+                // Stop here so the checkpoint stays in front of this file and it is tried again.
                 logger.error("Error writing improved code to file: {}", filePath, ioe);
-            } finally {
-                chatReader.close();
+                lastProcessed = change.previous();
+                break;
             }
         }
+        if (lastProcessed != null) {
+            checkpointManager.saveCheckpoint(lastProcessed, iteration);
+        }
 
         if (improvedFiles.isEmpty()) {
             logger.info("No valid improvements detected; skipping Git commit.");
@@ -121,7 +234,242 @@ public class ImprovementAgent {
 
         String fullCommit = String.join("\n\n", commitMessages);
         logger.info("Committing {} files with message:\n{}", improvedFiles.size(), fullCommit);
-        gitManager.addCommitPush(fullCommit);
+        gitManager.commitAndPush(improvedFiles, fullCommit);
+    }
+
+    /**
+     * Picks the next files in priority order and builds their prompts; missing files get a null prompt.
+     * Prompts already answered in an earlier cycle carry their cached outcome and are not sent again.
+     */
+    private List<Candidate> selectCandidates(int batchSize, String lastProcessed) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            String filePath = repoManager.getNextFileToProcess(lastProcessed);
+            if (filePath == null) {
+                break;
+            }
+            lastProcessed = filePath;
+            Path path = Paths.get(filePath);
+            if (!Files.exists(path)) {
+                candidates.add(new Candidate(filePath, path, null, null, null, null, 0, false));
+                continue;
+            }
+            logger.info("Improving file: {}", filePath);
+            List<ProfileIndex.MethodHeat> hotMethods = repoManager.hotMethods(path.toFile());
+            ImprovementPromptBuilder.AssembledPrompt assembled = promptBuilder.assemble(path.toFile(),
+                    repoManager.findRelatedDependencies(path.toFile()), hotMethods);
+            String cacheKey = PromptCache.keyFor(assembled.text());
+            candidates.add(new Candidate(filePath, path, assembled.text(), readQuietly(path), cacheKey,
+                    promptCache.lookup(cacheKey).orElse(null), assembled.sectionTokens().get("code"), !hotMethods.isEmpty()));
+        }
+        return candidates;
+    }
+
+    /**
+     * Sends every prompt of the batch at once and returns when all of them have a reply, failed or timed out.
+     * How many actually reach the model concurrently is decided by the client's {@link AdaptiveLimiter}. Replies are streamed through a
+     * {@link StreamingReplyParser} so an unusable answer is cancelled as soon as it goes off the rails.
+     * With packing enabled, small files are bin-packed into shared prompts and each file's future
+     * resolves to its own section of the packed reply. Packed files are added to {@code packed}: the model
+     * never saw their own prompt, so their outcomes must not be cached under its key.
+     */
+    private List<CompletableFuture<LlmResponse>> requestReplies(List<Candidate> candidates, Set<Candidate> packed) {
+        List<CompletableFuture<LlmResponse>> replies = new ArrayList<>();
+        List<Candidate> packable = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            replies.add(CompletableFuture.completedFuture(null));
+            if (candidate.prompt() != null && candidate.cached() == null && isPackable(candidate)) {
+                packable.add(candidate);
+            }
+        }
+        List<List<Candidate>> packs = PromptPacker.pack(packable, Candidate::codeTokens,
+                NexusMindConfig.getInt("nexusmind.pack.binTokens", 3000),
+                NexusMindConfig.getInt("nexusmind.pack.maxFiles", 6));
+        packs.removeIf(pack -> pack.size() < 2);
+        packs.forEach(packed::addAll);
+
+        long start = System.nanoTime();
+        int requests = 0;
+        for (List<Candidate> pack : packs) {
+            List<File> files = pack.stream().map(c -> c.path().toFile()).toList();
+            CompletableFuture<LlmResponse> packedReply = llmClient.complete(promptBuilder.assemblePacked(files).text());
+            for (Candidate candidate : pack) {
+                String relativePath = ImprovementPromptBuilder.relativePath(candidate.path().toFile());
+                replies.set(candidates.indexOf(candidate), packedReply.thenApply(response -> {
+                    String section = PromptPacker.sectionFor(PromptPacker.split(response.text()), relativePath);
+                    return new LlmResponse(section, response.backend(), response.latencyMillis());
+                }));
+            }
+            requests++;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            if (candidate.prompt() == null || candidate.cached() != null
+                    || packed.contains(candidate)) {
+                continue;
+            }
+            ReplyListener parser = StreamingReplyParser.forSource(
+                    candidate.path().getFileName().toString(), candidate.originalSource());
+            replies.set(i, llmClient.stream(candidate.prompt(), parser));
+            requests++;
+        }
+        // Wait for the whole batch; failures are reported per file when the replies are applied.
+        CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        logger.info("Received {} AI replies for {} files in {} ms",
+                requests, candidates.size(), (System.nanoTime() - start) / 1_000_000);
+        return replies;
+    }
+
+    /**
+     * Runs the acceptance checks on one reply. The first check that needs a checkout leases a worktree reset
+     * to {@code base} and writes the candidate into it; the worktree goes back to the pool afterwards.
+     */
+    private Verdict validate(Candidate candidate, String reply, String base) {
+        Optional<String> commitMsg = extractCommitMessage(reply);
+        if (commitMsg.isEmpty()) {
+            return new Verdict(null, null, "missing [COMMIT_MSG]", false);
+        }
+        return validate(candidate, extractImprovedCode(reply), commitMsg.get(), base);
+    }
+
+    private Verdict validate(Candidate candidate, String code, String commitMsg, String base) {
+        String relativePath = relativePath(candidate);
+        WorktreePool.Lease lease = null;
+        try {
+            for (CandidateCheck check : checks) {
+                if (check.needsWorktree() && lease == null) {
+                    lease = worktrees.lease(base);
+                    lease.write(relativePath, code);
+                }
+                String rejection = check.check(lease == null ? null : lease.path(), relativePath, code);
+                if (rejection != null) {
+                    return new Verdict(code, commitMsg, rejection, false);
+                }
+            }
+            return new Verdict(code, commitMsg, null, false);
+        } catch (CheckUnavailableException e) {
+            logger.error("Could not validate {}: {}", relativePath, e.getMessage());
+            return new Verdict(code, commitMsg, e.getMessage(), true);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not validate {} in a worktree", relativePath, e);
+            return new Verdict(code, commitMsg, "validation failed: " + e.getMessage(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Verdict(code, commitMsg, "interrupted", true);
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Narrows {@code accepted} to the changes that pass together. When the whole batch does not, changes are
+     * re-added one at a time in selection order and each is kept only if it still passes with the ones kept
+     * before it. Returns the change where re-checking stopped because the checks could not run (it and the
+     * rest are removed and retried next cycle), or null.
+     */
+    private Accepted keepCompatible(List<Accepted> accepted, String base) {
+        Verdict together = checkTogether(accepted, base);
+        if (together.rejection() == null) {
+            return null;
+        }
+        logger.warn("Accepted changes fail together ({}); re-checking them one at a time", together.rejection());
+        List<Accepted> kept = new ArrayList<>(List.of(accepted.get(0)));
+        Accepted stoppedAt = null;
+        for (Accepted next : accepted.subList(1, accepted.size())) {
+            List<Accepted> trial = new ArrayList<>(kept);
+            trial.add(next);
+            Verdict verdict = checkTogether(trial, base);
+            if (verdict.unverified()) {
+                logger.error("Could not check {} with earlier changes of this batch ({}); retrying next cycle",
+                        next.candidate().filePath(), verdict.rejection());
+                stoppedAt = next;
+                break;
+            }
+            if (verdict.rejection() == null) {
+                kept = trial;
+            } else {
+                logger.error("Dropping {}: fails with earlier changes of this batch ({})",
+                        next.candidate().filePath(), verdict.rejection());
+            }
+        }
+        accepted.retainAll(kept);
+        return stoppedAt;
+    }
+
+    /** Runs every check's combined form on {@code changes} applied together on {@code base}. */
+    private Verdict checkTogether(List<Accepted> changes, String base) {
+        Map<String, String> byPath = new LinkedHashMap<>();
+        changes.forEach(change -> byPath.put(relativePath(change.candidate()), change.code()));
+        WorktreePool.Lease lease = null;
+        try {
+            for (CandidateCheck check : checks) {
+                if (check.needsWorktree() && lease == null) {
+                    lease = worktrees.lease(base);
+                    for (Map.Entry<String, String> change : byPath.entrySet()) {
+                        lease.write(change.getKey(), change.getValue());
+                    }
+                }
+                String rejection = check.checkAll(lease == null ? null : lease.path(), byPath);
+                if (rejection != null) {
+                    return new Verdict(null, null, rejection, false);
+                }
+            }
+            return new Verdict(null, null, null, false);
+        } catch (CheckUnavailableException e) {
+            logger.error("Could not validate {} changes together: {}", byPath.size(), e.getMessage());
+            return new Verdict(null, null, e.getMessage(), true);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not validate {} changes together in a worktree", byPath.size(), e);
+            return new Verdict(null, null, "validation failed: " + e.getMessage(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Verdict(null, null, "interrupted", true);
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    private String relativePath(Candidate candidate) {
+        return Path.of(repoManager.getLocalPath()).toAbsolutePath().normalize()
+                .relativize(candidate.path().toAbsolutePath().normalize()).toString();
+    }
+
+    private static String readQuietly(Path path) {
+        try {
+            return Files.readString(path);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * True when packing is on and the file is small; files with profiled hot methods keep their own prompt
+     * so the hints reach the model.
+     */
+    private boolean isPackable(Candidate candidate) {
+        return packSmallFileTokens > 0 && candidate.codeTokens() <= packSmallFileTokens && !candidate.profiled();
+    }
+
+    private record Candidate(String filePath, Path path, String prompt, String originalSource,
+            String cacheKey, PromptCache.Entry cached, int codeTokens, boolean profiled) {
+    }
+
+    /**
+     * A reply that passed every check on its own, waiting to be written; {@code previous} is the checkpoint
+     * to fall back to if it ends up not being written.
+     */
+    private record Accepted(Candidate candidate, String code, String commitMessage, String previous) {
+    }
+
+    /**
+     * Outcome of validating one reply; {@code rejection} is null when every check passed. When
+     * {@code unverified} is set the checks themselves could not run and {@code rejection} says why.
+     */
+    private record Verdict(String code, String commitMessage, String rejection, boolean unverified) {
     }
 
     private Optional<String> extractCommitMessage(String response) {
@@ -133,8 +481,22 @@ public class ImprovementAgent {
         return Optional.empty();
     }
 
+    /**
+     * Returns the code part of the reply. Raw replies (HTTP backends) still carry the markdown
+     * fence, scraped code blocks (chat UI) do not.
+     */
     private String extractImprovedCode(String response) {
         int idx = response.indexOf("[COMMIT_MSG]");
-        return idx >= 0 ? response.substring(0, idx).trim() : response.trim();
+        String code = idx >= 0 ? response.substring(0, idx).trim() : response.trim();
+        int fence = code.indexOf("```");
+        if (fence < 0) {
+            return code;
+        }
+        int bodyStart = code.indexOf('\n', fence);
+        int fenceEnd = code.indexOf("```", bodyStart + 1);
+        if (bodyStart < 0) {
+            return code;
+        }
+        return (fenceEnd > bodyStart ? code.substring(bodyStart + 1, fenceEnd) : code.substring(bodyStart + 1)).trim();
     }
 }
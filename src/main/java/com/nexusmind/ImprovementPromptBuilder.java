@@ -1,87 +1,275 @@
 package com.nexusmind;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Assembles improvement prompts within a token budget.
+ * <p>
+ * The fixed instruction block is built and measured once. The file under improvement is always sent in full;
+ * the structure is rendered around it by a {@link ProjectStructureMapper} within the remaining budget and
+ * minified dependency sources are added only while budget remains.
+ */
+public final class ImprovementPromptBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImprovementPromptBuilder.class);
+
+    private static final String HEADER = """
+            You are tasked with directly improving the following Java class.
+
+            File Path: %s
+            Package: %s
+
+            Dependencies:
+            """;
+
+    private static final String INSTRUCTIONS = """
+
+            STRICT INSTRUCTIONS:
+            - NEVER provide examples or placeholders
+            - You MUST improve the provided Java code meaningfully.
+            - DO NOT return the same code unchanged.
+            - Always enhance performance, scalability, naming, structure, modularity, error handling, readability, and architecture.
+            - If no major logic improvements are found, at least optimize formatting, comments, and minor refactoring.
+            - You MUST return:
+                1. The full improved Java class inside a single ```java``` code block.
+                2. A short Git commit message inside [COMMIT_MSG] and [/COMMIT_MSG] tags.
+            - Both parts MUST be included every time. Otherwise, the response will be considered invalid.
+
+            EXAMPLE OF EXPECTED RESPONSE:
+
+            ```java
+            package com.nexusmind;
+
+            public class ExampleImprovement {
+                public void evolve() {
+                    // Improved evolution logic
+                }
+            }
+            ```
+
+            [COMMIT_MSG]
+            Refactor ExampleImprovement to optimize evolution logic and improve method clarity.
+            [/COMMIT_MSG]
+
+            Current Code:
+            """;
+
+    private static final String PACKED_HEADER = """
+            You are tasked with directly improving each of the following %d Java classes independently.
+            Each class is given between [FILE <path>] and [/FILE] markers.
+            """;
 
-public class ImprovementPromptBuilder {
+    private static final String PACKED_INSTRUCTIONS = """
 
-    private final String projectStructure;
+            STRICT INSTRUCTIONS:
+            - NEVER provide examples or placeholders
+            - You MUST improve every provided Java class meaningfully and independently of the others.
+            - DO NOT return any class unchanged.
+            - Always enhance performance, scalability, naming, structure, modularity, error handling, readability, and architecture.
+            - For EVERY file you MUST return, between [FILE <same path>] and [/FILE] markers:
+                1. The full improved Java class inside a single ```java``` code block.
+                2. A short Git commit message inside [COMMIT_MSG] and [/COMMIT_MSG] tags.
+            - Files missing either part are considered invalid; the others are still accepted.
 
-    public ImprovementPromptBuilder(String projectStructure) {
-        this.projectStructure = projectStructure;
+            EXAMPLE OF EXPECTED RESPONSE FOR ONE FILE:
+
+            [FILE src/main/java/com/nexusmind/ExampleImprovement.java]
+            ```java
+            package com.nexusmind;
+
+            public class ExampleImprovement {
+                public void evolve() {
+                    // Improved evolution logic
+                }
+            }
+            ```
+            [COMMIT_MSG]
+            Refactor ExampleImprovement to optimize evolution logic and improve method clarity.
+            [/COMMIT_MSG]
+            [/FILE]
+
+            Current Code:
+            """;
+
+    private static final int INSTRUCTION_TOKENS = TokenEstimator.estimate(INSTRUCTIONS);
+    private static final int PACKED_INSTRUCTION_TOKENS = TokenEstimator.estimate(PACKED_INSTRUCTIONS);
+
+    /** Prompt text plus the estimated token count of each section, in prompt order. */
+    public record AssembledPrompt(String text, Map<String, Integer> sectionTokens, int totalTokens, int budget) {
+
+        public boolean overBudget() {
+            return totalTokens > budget;
+        }
+    }
+
+    private final int tokenBudget;
+    private final ProjectStructureMapper structureMapper;
+
+    public ImprovementPromptBuilder(ProjectStructureMapper structureMapper) {
+        this(structureMapper, NexusMindConfig.getInt("nexusmind.prompt.maxTokens", 8000));
+    }
+
+    /**
+     * @param structureMapper renders the structure per prompt, focused on the file being improved and sized to
+     *                        the budget left after the code
+     */
+    public ImprovementPromptBuilder(ProjectStructureMapper structureMapper, int tokenBudget) {
+        this.structureMapper = structureMapper;
+        this.tokenBudget = tokenBudget;
     }
 
     public String buildPromptForFile(File file, List<String> dependencies) {
+        return assemble(file, dependencies).text();
+    }
+
+    public AssembledPrompt assemble(File file, List<String> dependencies) {
+        return assemble(file, dependencies, List.of());
+    }
+
+    /** Like {@link #assemble(File, List)}, telling the model which methods profiling found hot. */
+    public synchronized AssembledPrompt assemble(File file, List<String> dependencies, List<ProfileIndex.MethodHeat> hotMethods) {
         try {
             String fileContent = new String(Files.readAllBytes(file.toPath())).trim();
             String relativePath = getRelativePath(file);
             String packageName = extractPackageName(fileContent);
+            Map<String, Integer> sections = new LinkedHashMap<>();
 
-            StringBuilder prompt = new StringBuilder();
-
-            prompt.append("""
-                You are tasked with directly improving the following Java class.
-
-                File Path: %s
-                Package: %s
-
-                Dependencies:
-                """.formatted(relativePath, packageName != null ? packageName : "(not found)"));
-
+            StringBuilder header = new StringBuilder(HEADER.formatted(relativePath,
+                    packageName != null ? packageName : "(not found)"));
             if (dependencies.isEmpty()) {
-                prompt.append("- None\n");
+                header.append("- None\n");
             } else {
                 for (String dep : dependencies) {
-                    prompt.append("- ").append(dep).append("\n");
+                    header.append("- ").append(Path.of(dep).isAbsolute() ? relativePath(new File(dep)) : dep).append("\n");
                 }
             }
-
-            prompt.append("""
-
-                Project Structure Overview:
-                %s
-
-                STRICT INSTRUCTIONS:
-                - NEVER provide examples or placeholders
-                - You MUST improve the provided Java code meaningfully.
-                - DO NOT return the same code unchanged.
-                - Always enhance performance, scalability, naming, structure, modularity, error handling, readability, and architecture.
-                - If no major logic improvements are found, at least optimize formatting, comments, and minor refactoring.
-                - You MUST return:
-                    1. The full improved Java class inside a single ```java``` code block.
-                    2. A short Git commit message inside [COMMIT_MSG] and [/COMMIT_MSG] tags.
-                - Both parts MUST be included every time. Otherwise, the response will be considered invalid.
-                
-                EXAMPLE OF EXPECTED RESPONSE:
-
-                ```java
-                package com.nexusmind;
-
-                public class ExampleImprovement {
-                    public void evolve() {
-                        // Improved evolution logic
-                    }
+            if (!hotMethods.isEmpty()) {
+                header.append("\nProfiled Hot Methods (share of production samples; focus performance work here):\n");
+                for (ProfileIndex.MethodHeat heat : hotMethods) {
+                    header.append(String.format(Locale.ROOT, "- %s: %.1f%% CPU, %.1f%% allocation\n", heat.method(),
+                            100 * heat.cpuShare(), 100 * heat.allocShare()));
                 }
-                ```
+            }
+            String code = "\n```java\n" + fileContent + "\n```";
 
-                [COMMIT_MSG]
-                Refactor ExampleImprovement to optimize evolution logic and improve method clarity.
-                [/COMMIT_MSG]
+            sections.put("header", TokenEstimator.estimate(header));
+            sections.put("instructions", INSTRUCTION_TOKENS);
+            sections.put("code", TokenEstimator.estimate(code));
+            int remaining = tokenBudget - sections.values().stream().mapToInt(Integer::intValue).sum();
 
-                Current Code:
-                """.formatted(projectStructure));
+            String structure = fitStructure(file, remaining);
+            sections.put("structure", TokenEstimator.estimate(structure));
+            remaining -= sections.get("structure");
 
-            prompt.append("\n```java\n").append(fileContent).append("\n```");
+            String context = fitDependencySources(file, dependencies, remaining);
+            sections.put("context", TokenEstimator.estimate(context));
 
-            return prompt.toString();
+            StringBuilder prompt = new StringBuilder(header)
+                    .append("\nProject Structure Overview:\n").append(structure).append("\n");
+            if (!context.isEmpty()) {
+                prompt.append("\nRelated Sources (minified, read-only context):\n").append(context);
+            }
+            prompt.append(INSTRUCTIONS).append(code);
+
+            int total = sections.values().stream().mapToInt(Integer::intValue).sum();
+            AssembledPrompt assembled = new AssembledPrompt(prompt.toString(), sections, total, tokenBudget);
+            if (assembled.overBudget()) {
+                logger.warn("Prompt for {} is ~{} tokens, over the {} token budget: {}", relativePath, total, tokenBudget, sections);
+            } else {
+                logger.info("Prompt for {} is ~{} tokens: {}", relativePath, total, sections);
+            }
+            return assembled;
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to read file: " + file.getName(), e);
         }
     }
 
+    /**
+     * Builds one prompt for several small files. The fixed instructions are paid once for the whole pack;
+     * the structure overview gets whatever budget the files leave, and no dependency context is added.
+     */
+    public synchronized AssembledPrompt assemblePacked(List<File> files) {
+        Map<String, Integer> sections = new LinkedHashMap<>();
+        StringBuilder code = new StringBuilder();
+        for (File file : files) {
+            try {
+                String fileContent = new String(Files.readAllBytes(file.toPath())).trim();
+                code.append('\n').append(PromptPacker.FILE_OPEN.formatted(relativePath(file)))
+                        .append("\n```java\n").append(fileContent).append("\n```\n")
+                        .append(PromptPacker.FILE_CLOSE).append('\n');
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read file: " + file.getName(), e);
+            }
+        }
+        String header = PACKED_HEADER.formatted(files.size());
+        sections.put("header", TokenEstimator.estimate(header));
+        sections.put("instructions", PACKED_INSTRUCTION_TOKENS);
+        sections.put("code", TokenEstimator.estimate(code));
+        String structure = fitStructure(files.isEmpty() ? null : files.get(0),
+                tokenBudget - sections.values().stream().mapToInt(Integer::intValue).sum());
+        sections.put("structure", TokenEstimator.estimate(structure));
+
+        String prompt = header + "\nProject Structure Overview:\n" + structure + "\n" + PACKED_INSTRUCTIONS + code;
+        int total = sections.values().stream().mapToInt(Integer::intValue).sum();
+        logger.info("Packed prompt for {} files is ~{} tokens: {}", files.size(), total, sections);
+        return new AssembledPrompt(prompt, sections, total, tokenBudget);
+    }
+
+    /** Renders the tree around {@code target} within the budget. */
+    private String fitStructure(File target, int budget) {
+        return structureMapper.render(target == null ? null : target.toPath(), Math.max(0, budget));
+    }
+
+    /** Adds minified sources of dependencies that resolve to readable files, as long as they fit. */
+    private String fitDependencySources(File file, List<String> dependencies, int budget) {
+        StringBuilder out = new StringBuilder();
+        int used = 0;
+        for (String dep : dependencies) {
+            Path path = resolveDependency(file, dep);
+            if (path == null) {
+                continue;
+            }
+            try {
+                String minified = SourceMinifier.minify(Files.readString(path));
+                String block = "// " + getRelativePath(path.toFile()) + "\n" + minified + "\n";
+                int tokens = TokenEstimator.estimate(block);
+                if (used + tokens > budget) {
+                    continue;
+                }
+                out.append(block);
+                used += tokens;
+            } catch (IOException e) {
+                logger.debug("Skipping unreadable dependency {}: {}", dep, e.getMessage());
+            }
+        }
+        return out.toString();
+    }
+
+    private Path resolveDependency(File file, String dep) {
+        Path candidate = Path.of(dep);
+        if (!candidate.isAbsolute()) {
+            Path root = file.toPath().toAbsolutePath();
+            String normalized = root.toString().replace("\\", "/");
+            int src = normalized.lastIndexOf("/src/");
+            if (src < 0) {
+                return null;
+            }
+            candidate = Path.of(normalized.substring(0, src)).resolve(dep);
+        }
+        return Files.isRegularFile(candidate) && !candidate.equals(file.toPath()) ? candidate : null;
+    }
+
     private String extractPackageName(String fileContent) {
         for (String line : fileContent.split("\n")) {
             line = line.trim();
@@ -93,6 +281,11 @@ public class ImprovementPromptBuilder {
     }
 
     private String getRelativePath(File file) {
+        return relativePath(file);
+    }
+
+    /** Path from the {@code src/} folder on, as shown to the model. */
+    static String relativePath(File file) {
         return file.getPath().replace("\\", "/").replaceFirst(".*/src/", "src/");
     }
 }
@@ -0,0 +1,339 @@
+package com.nexusmind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass Java lexer that checks structure as text arrives in chunks of any size.
+ * <p>
+ * It skips comments, string and char literals and text blocks, matches {@code {} () []} against each other and
+ * records the package name and the top-level type declarations. State survives chunk boundaries, so a token
+ * split across two chunks is handled like any other. Work is constant per character and nothing is allocated
+ * per character: identifiers go into a reused buffer and only the package, type names and the first error
+ * become strings. Unicode escapes are not decoded.
+ */
+public class JavaStructureLexer {
+
+    private static final int CODE = 0;
+    private static final int SLASH = 1;
+    private static final int LINE_COMMENT = 2;
+    private static final int BLOCK_COMMENT = 3;
+    private static final int BLOCK_STAR = 4;
+    private static final int STRING = 5;
+    private static final int STRING_ESCAPE = 6;
+    private static final int CHAR = 7;
+    private static final int CHAR_ESCAPE = 8;
+    private static final int EMPTY_STRING = 9;
+    private static final int TEXT_BLOCK = 10;
+    private static final int TEXT_BLOCK_ESCAPE = 11;
+
+    private int state = CODE;
+    private int line = 1;
+    private boolean stringJustOpened;
+    private int textBlockQuotes;
+    private int literalLine;
+
+    private char[] openers = new char[64];
+    private int[] openerLines = new int[64];
+    private int nesting;
+    private int braceDepth;
+
+    private char[] word = new char[64];
+    private int wordLength;
+    private char previousSymbol;
+    private boolean expectTypeName;
+    private boolean inPackage;
+    private final StringBuilder packageBuffer = new StringBuilder();
+
+    private String packageName;
+    private final List<String> topLevelTypes = new ArrayList<>();
+    private String error;
+
+    /** Feeds the next chunk; false once a structural error was found. */
+    public boolean feed(CharSequence chunk) {
+        return feed(chunk, 0, chunk.length());
+    }
+
+    public boolean feed(CharSequence chunk, int start, int end) {
+        for (int i = start; i < end && error == null; i++) {
+            accept(chunk.charAt(i));
+        }
+        return error == null;
+    }
+
+    public boolean feed(char c) {
+        if (error == null) {
+            accept(c);
+        }
+        return error == null;
+    }
+
+    /** Marks the end of input: unterminated literals, comments and unclosed brackets become errors. */
+    public boolean finish() {
+        if (error != null) {
+            return false;
+        }
+        switch (state) {
+            case STRING, STRING_ESCAPE, CHAR, CHAR_ESCAPE -> fail("unterminated literal at line " + literalLine);
+            case TEXT_BLOCK, TEXT_BLOCK_ESCAPE -> fail("unterminated text block opened at line " + literalLine);
+            case BLOCK_COMMENT, BLOCK_STAR -> fail("unterminated comment opened at line " + literalLine);
+            default -> {
+                endWord();
+                state = CODE;
+                if (nesting > 0) {
+                    fail("unclosed " + openers[nesting - 1] + " opened at line " + openerLines[nesting - 1]);
+                }
+            }
+        }
+        return error == null;
+    }
+
+    /** Clears all state so the instance can check another source. */
+    public void reset() {
+        state = CODE;
+        line = 1;
+        stringJustOpened = false;
+        textBlockQuotes = 0;
+        nesting = 0;
+        braceDepth = 0;
+        wordLength = 0;
+        previousSymbol = 0;
+        expectTypeName = false;
+        inPackage = false;
+        packageBuffer.setLength(0);
+        packageName = null;
+        topLevelTypes.clear();
+        error = null;
+    }
+
+    /** First structural error, or null. */
+    public String error() {
+        return error;
+    }
+
+    /** Current {@code {}} nesting outside comments and literals. */
+    public int braceDepth() {
+        return braceDepth;
+    }
+
+    public int line() {
+        return line;
+    }
+
+    /** Declared package, or null when none has been seen (yet). */
+    public String packageName() {
+        return packageName;
+    }
+
+    /** Names of the top-level classes, interfaces, enums, records and annotation types seen so far. */
+    public List<String> topLevelTypes() {
+        return topLevelTypes;
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case CODE -> code(c);
+            case SLASH -> {
+                if (c == '/') {
+                    state = LINE_COMMENT;
+                } else if (c == '*') {
+                    state = BLOCK_COMMENT;
+                    literalLine = line;
+                } else {
+                    state = CODE;
+                    symbol('/');
+                    code(c);
+                }
+            }
+            case LINE_COMMENT -> {
+                if (c == '\n') {
+                    state = CODE;
+                    line++;
+                }
+            }
+            case BLOCK_COMMENT -> {
+                if (c == '*') {
+                    state = BLOCK_STAR;
+                } else if (c == '\n') {
+                    line++;
+                }
+            }
+            case BLOCK_STAR -> {
+                if (c == '/') {
+                    state = CODE;
+                } else if (c != '*') {
+                    state = BLOCK_COMMENT;
+                    if (c == '\n') {
+                        line++;
+                    }
+                }
+            }
+            case STRING -> {
+                if (c == '"') {
+                    state = stringJustOpened ? EMPTY_STRING : CODE;
+                } else if (c == '\\') {
+                    state = STRING_ESCAPE;
+                } else if (c == '\n') {
+                    fail("unterminated string literal at line " + line);
+                }
+                stringJustOpened = false;
+            }
+            case STRING_ESCAPE -> state = c == '\n' ? fail("unterminated string literal at line " + line) : STRING;
+            case CHAR -> {
+                if (c == '\'') {
+                    state = CODE;
+                } else if (c == '\\') {
+                    state = CHAR_ESCAPE;
+                } else if (c == '\n') {
+                    fail("unterminated char literal at line " + line);
+                }
+            }
+            case CHAR_ESCAPE -> state = c == '\n' ? fail("unterminated char literal at line " + line) : CHAR;
+            case EMPTY_STRING -> {
+                if (c == '"') {
+                    state = TEXT_BLOCK;
+                    textBlockQuotes = 0;
+                    literalLine = line;
+                } else {
+                    state = CODE;
+                    code(c);
+                }
+            }
+            case TEXT_BLOCK -> {
+                if (c == '"') {
+                    if (++textBlockQuotes == 3) {
+                        state = CODE;
+                    }
+                    return;
+                }
+                textBlockQuotes = 0;
+                if (c == '\\') {
+                    state = TEXT_BLOCK_ESCAPE;
+                } else if (c == '\n') {
+                    line++;
+                }
+            }
+            case TEXT_BLOCK_ESCAPE -> {
+                state = TEXT_BLOCK;
+                if (c == '\n') {
+                    line++;
+                }
+            }
+            default -> throw new IllegalStateException("lexer state " + state);
+        }
+    }
+
+    private void code(char c) {
+        if (wordLength > 0 ? Character.isJavaIdentifierPart(c) : Character.isJavaIdentifierStart(c)) {
+            if (wordLength == word.length) {
+                word = Arrays.copyOf(word, word.length * 2);
+            }
+            word[wordLength++] = c;
+            return;
+        }
+        endWord();
+        switch (c) {
+            case '\n' -> line++;
+            case ' ', '\t', '\r', '\f' -> {
+            }
+            case '/' -> state = SLASH;
+            case '"' -> {
+                state = STRING;
+                stringJustOpened = true;
+                literalLine = line;
+            }
+            case '\'' -> {
+                state = CHAR;
+                literalLine = line;
+            }
+            default -> symbol(c);
+        }
+    }
+
+    private void symbol(char c) {
+        switch (c) {
+            case '{', '(', '[' -> open(c);
+            case '}' -> close(c, '{');
+            case ')' -> close(c, '(');
+            case ']' -> close(c, '[');
+            default -> {
+            }
+        }
+        if (inPackage) {
+            if (c == '.') {
+                packageBuffer.append('.');
+            } else if (c == ';') {
+                packageName = packageBuffer.toString();
+                inPackage = false;
+            }
+        }
+        expectTypeName = false;
+        previousSymbol = c;
+    }
+
+    private void open(char c) {
+        if (nesting == openers.length) {
+            openers = Arrays.copyOf(openers, nesting * 2);
+            openerLines = Arrays.copyOf(openerLines, nesting * 2);
+        }
+        openers[nesting] = c;
+        openerLines[nesting++] = line;
+        if (c == '{') {
+            braceDepth++;
+        }
+    }
+
+    private void close(char c, char expected) {
+        if (nesting == 0) {
+            fail("'" + c + "' at line " + line + " has no matching '" + expected + "'");
+        } else if (openers[nesting - 1] != expected) {
+            fail("'" + c + "' at line " + line + " closes '" + openers[nesting - 1] + "' opened at line "
+                    + openerLines[nesting - 1]);
+        } else {
+            nesting--;
+            if (c == '}') {
+                braceDepth--;
+            }
+        }
+    }
+
+    private void endWord() {
+        if (wordLength == 0) {
+            return;
+        }
+        if (inPackage) {
+            packageBuffer.append(word, 0, wordLength);
+        } else if (expectTypeName) {
+            topLevelTypes.add(new String(word, 0, wordLength));
+            expectTypeName = false;
+        } else if (nesting == 0 && previousSymbol != '.') {
+            if (wordIs("package") && packageName == null && topLevelTypes.isEmpty()) {
+                inPackage = true;
+            } else {
+                expectTypeName = wordIs("class") || wordIs("interface") || wordIs("enum") || wordIs("record");
+            }
+        }
+        wordLength = 0;
+        previousSymbol = 0;
+    }
+
+    private boolean wordIs(String keyword) {
+        if (keyword.length() != wordLength) {
+            return false;
+        }
+        for (int i = 0; i < wordLength; i++) {
+            if (word[i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int fail(String reason) {
+        if (error == null) {
+            error = reason;
+        }
+        return state;
+    }
+}
@@ -0,0 +1,74 @@
+package com.nexusmind;
+
+import java.util.Random;
+
+/**
+ * Latency distribution for replayed calls, parsed from a short spec:
+ * <ul>
+ *     <li>{@code recorded} (default) or {@code recorded:1.5} - the recorded latency, optionally scaled</li>
+ *     <li>{@code fixed:200} - always 200 ms</li>
+ *     <li>{@code uniform:100-900} - uniformly between 100 and 900 ms</li>
+ *     <li>{@code lognormal:800,0.5} - log-normal with an 800 ms median and sigma 0.5</li>
+ * </ul>
+ * Draws come from a seeded generator so two replays of the same fixtures wait the same way.
+ */
+public final class LatencyModel {
+
+    private final String kind;
+    private final double a;
+    private final double b;
+    private final Random random;
+
+    private LatencyModel(String kind, double a, double b, long seed) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+        this.random = new Random(seed);
+    }
+
+    public static LatencyModel parse(String spec, long seed) {
+        String[] parts = spec.trim().split(":", 2);
+        String args = parts.length > 1 ? parts[1] : "";
+        try {
+            return switch (parts[0]) {
+                case "recorded" -> new LatencyModel("recorded", args.isEmpty() ? 1.0 : Double.parseDouble(args), 0, seed);
+                case "fixed" -> new LatencyModel("fixed", Double.parseDouble(args), 0, seed);
+                case "uniform" -> {
+                    String[] range = args.split("-");
+                    yield new LatencyModel("uniform", Double.parseDouble(range[0]), Double.parseDouble(range[1]), seed);
+                }
+                case "lognormal" -> {
+                    String[] params = args.split(",");
+                    yield new LatencyModel("lognormal", Double.parseDouble(params[0]), Double.parseDouble(params[1]), seed);
+                }
+                default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+            };
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed latency model: " + spec, e);
+        }
+    }
+
+    /** Next delay in milliseconds; {@code recordedMillis} is only used by the {@code recorded} model. */
+    public synchronized long nextMillis(long recordedMillis) {
+        double millis = switch (kind) {
+            case "recorded" -> recordedMillis * a;
+            case "fixed" -> a;
+            case "uniform" -> a + random.nextDouble() * (b - a);
+            default -> a * Math.exp(b * random.nextGaussian());
+        };
+        return Math.max(0, Math.round(millis));
+    }
+
+    /** Sleeps for the next delay. */
+    public void pause(long recordedMillis) {
+        long millis = nextMillis(recordedMillis);
+        if (millis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
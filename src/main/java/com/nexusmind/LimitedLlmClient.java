@@ -0,0 +1,79 @@
+package com.nexusmind;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link LlmClient} decorator that routes every call through an {@link AdaptiveLimiter}.
+ * Waiting for a slot happens on a virtual thread, so callers are never blocked; the model timeout only starts
+ * once the slot is granted, and its outcome is fed back into the limiter.
+ */
+public class LimitedLlmClient implements LlmClient {
+
+    private final LlmClient delegate;
+    private final AdaptiveLimiter limiter;
+    private final ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LimitedLlmClient(LlmClient delegate, AdaptiveLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    public AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(String prompt) {
+        return limited(() -> delegate.complete(prompt));
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> stream(String prompt, ReplyListener listener) {
+        return limited(() -> delegate.stream(prompt, listener));
+    }
+
+    @Override
+    public void reportInvalidReply(String reason) {
+        limiter.onInvalidReply(reason);
+    }
+
+    private CompletableFuture<LlmResponse> limited(Supplier<CompletableFuture<LlmResponse>> call) {
+        long timeoutMillis = NexusMindConfig.llmTimeout().toMillis();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, waiters).thenCompose(permit -> {
+            CompletableFuture<LlmResponse> reply;
+            try {
+                reply = call.get();
+            } catch (RuntimeException e) {
+                permit.release(e);
+                throw e;
+            }
+            // The timeout fails the delegate's own future, which makes the backend abort the request, so the
+            // slot is not handed out again while the timed-out call still runs.
+            return reply.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .whenComplete((response, error) -> permit.release(error));
+        });
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public void close() {
+        waiters.shutdownNow();
+        delegate.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.nexusmind;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends prompts to a language model.
+ * Implementations must not block the calling thread; the reply is delivered through the returned future.
+ * When that future is cancelled or failed from outside (callers time out this way), the implementation stops
+ * the underlying request, so a caller that counts requests in flight never undercounts them.
+ */
+public interface LlmClient extends AutoCloseable {
+
+    CompletableFuture<LlmResponse> complete(String prompt);
+
+    /**
+     * Like {@link #complete(String)}, but feeds the reply to {@code listener} while it is generated.
+     * When the listener returns {@code false} the generation is cancelled and the future fails with
+     * {@link ReplyAbortedException}. Backends without streaming deliver the whole reply as one chunk.
+     */
+    default CompletableFuture<LlmResponse> stream(String prompt, ReplyListener listener) {
+        CompletableFuture<LlmResponse> reply = complete(prompt);
+        return cancelOnFailure(reply.thenApply(response -> {
+            if (!response.isEmpty() && (!listener.onChunk(response.text()) || !listener.finish())) {
+                throw new CompletionException(new ReplyAbortedException(listener.abortReason()));
+            }
+            return response;
+        }), reply);
+    }
+
+    /**
+     * Returns {@code derived}, cancelling {@code source} when {@code derived} fails or is cancelled first, e.g. on
+     * a timeout. Futures derived with {@code thenApply} and friends do not pass that back on their own, so
+     * decorators use this to let the backend stop the underlying request.
+     */
+    static <T> CompletableFuture<T> cancelOnFailure(CompletableFuture<T> derived, CompletableFuture<?> source) {
+        derived.whenComplete((result, error) -> {
+            if (error != null) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Tells the client that a reply it delivered was unusable (no commit message, invalid code), so rate
+     * control can treat it like a failed call. Plain backends ignore it.
+     */
+    default void reportInvalidReply(String reason) {
+    }
+
+    /** Short backend name used in logs. */
+    String name();
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Builds the backend selected by {@link NexusMindConfig#llmBackend()}, recording it when fixtures are being
+     * recorded. In replay mode no backend is started at all.
+     */
+    static LlmClient fromConfig() {
+        FixtureStore fixtures = FixtureStore.shared();
+        if (fixtures.replaying()) {
+            return new ReplayLlmClient(fixtures, LatencyModel.parse(
+                    NexusMindConfig.get("nexusmind.replay.llmLatency", "recorded"),
+                    NexusMindConfig.getInt("nexusmind.replay.seed", 42)));
+        }
+        LlmClient backend = backendFromConfig();
+        return fixtures.recording() ? new RecordingLlmClient(backend, fixtures) : backend;
+    }
+
+    private static LlmClient backendFromConfig() {
+        String backend = NexusMindConfig.llmBackend();
+        return switch (backend) {
+            case "http" -> new HttpLlmClient(NexusMindConfig.llmEndpoint(), NexusMindConfig.llmModel(),
+                    HttpLlmClient.loadApiKey(NexusMindConfig.llmApiKeyFile()), NexusMindConfig.llmTimeout());
+            case "stub" -> {
+                LocalStubLlmServer server = LocalStubLlmServer.start(NexusMindConfig.stubPort());
+                yield new HttpLlmClient(server.endpoint(), "stub", null, NexusMindConfig.llmTimeout()) {
+                    @Override
+                    public String name() {
+                        return "stub";
+                    }
+
+                    @Override
+                    public void close() {
+                        server.close();
+                    }
+                };
+            }
+            case "chat-ui" -> new ChatUiLlmClient();
+            default -> throw new IllegalArgumentException("Unknown LLM backend: " + backend);
+        };
+    }
+}
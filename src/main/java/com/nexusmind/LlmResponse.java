@@ -0,0 +1,11 @@
+package com.nexusmind;
+
+/**
+ * A completed model reply together with the backend that produced it and how long it took.
+ */
+public record LlmResponse(String text, String backend, long latencyMillis) {
+
+    public boolean isEmpty() {
+        return text == null || text.isBlank();
+    }
+}
@@ -0,0 +1,159 @@
+package com.nexusmind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal OpenAI-compatible chat completions server for headless runs.
+ * Improvement prompts get the current code echoed back with a commit message; any other prompt gets an empty reply.
+ */
+public class LocalStubLlmServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern JAVA_BLOCK = Pattern.compile("```java\\n(.*?)\\n```", Pattern.DOTALL);
+    private static final Pattern CLASS_NAME = Pattern.compile("\\b(?:class|interface|enum|record)\\s+(\\w+)");
+
+    private final HttpServer server;
+    private final long latencyMillis;
+
+    private LocalStubLlmServer(HttpServer server, long latencyMillis) {
+        this.server = server;
+        this.latencyMillis = latencyMillis;
+    }
+
+    public static LocalStubLlmServer start(int port) {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            LocalStubLlmServer stub = new LocalStubLlmServer(httpServer,
+                    NexusMindConfig.getInt("nexusmind.llm.stubLatencyMillis", 0));
+            httpServer.createContext("/v1/chat/completions", stub::handle);
+            httpServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            httpServer.start();
+            System.out.println("[StubLLM] Listening on " + stub.endpoint());
+            return stub;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start stub LLM server on port " + port + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static void main(String[] args) {
+        start(args.length > 0 ? Integer.parseInt(args[0]) : NexusMindConfig.stubPort());
+    }
+
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            String prompt = request.path("messages").path(0).path("content").asText("");
+            if (request.path("stream").asBoolean(false)) {
+                streamReply(exchange, replyFor(prompt));
+                return;
+            }
+            simulateLatency();
+
+            ObjectNode response = MAPPER.createObjectNode();
+            ObjectNode message = response.putArray("choices").addObject().putObject("message");
+            message.put("role", "assistant");
+            message.put("content", replyFor(prompt));
+
+            byte[] body = response.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+
+    /** Sends the reply as server-sent events, spreading the configured latency over the chunks. */
+    private void streamReply(HttpExchange exchange, String reply) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        int chunkSize = 64;
+        int chunks = Math.max(1, (reply.length() + chunkSize - 1) / chunkSize);
+        try (OutputStream os = exchange.getResponseBody()) {
+            for (int i = 0; i < reply.length(); i += chunkSize) {
+                ObjectNode event = MAPPER.createObjectNode();
+                event.putArray("choices").addObject().putObject("delta")
+                        .put("content", reply.substring(i, Math.min(reply.length(), i + chunkSize)));
+                os.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+                os.flush();
+                sleepQuietly(latencyMillis / chunks);
+            }
+            os.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Client hung up, e.g. because it aborted the reply.
+        }
+    }
+
+    /**
+     * Echoes the code after the last "Current Code:" marker, which is always the file under improvement.
+     * Packed prompts get one echoed section per {@code [FILE ...]} marker.
+     */
+    static String replyFor(String prompt) {
+        int marker = prompt.lastIndexOf("Current Code:");
+        String current = marker >= 0 ? prompt.substring(marker) : prompt;
+        Map<String, String> packed = PromptPacker.split(current);
+        if (!packed.isEmpty()) {
+            StringBuilder reply = new StringBuilder();
+            packed.forEach((path, section) -> reply.append(PromptPacker.FILE_OPEN.formatted(path)).append('\n')
+                    .append(echo(section)).append('\n').append(PromptPacker.FILE_CLOSE).append("\n\n"));
+            return reply.toString();
+        }
+        return echo(current);
+    }
+
+    private static String echo(String prompt) {
+        Matcher matcher = JAVA_BLOCK.matcher(prompt);
+        String code = null;
+        while (matcher.find()) {
+            code = matcher.group(1);
+        }
+        if (code == null) {
+            return "";
+        }
+        Matcher name = CLASS_NAME.matcher(code);
+        String className = name.find() ? name.group(1) : "class";
+        return "```java\n" + code + "\n```\n\n[COMMIT_MSG]\nReview " + className + " (stub reply, no changes).\n[/COMMIT_MSG]";
+    }
+
+    private void simulateLatency() {
+        sleepQuietly(latencyMillis);
+    }
+
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        System.out.println("[StubLLM] Stopped.");
+    }
+}
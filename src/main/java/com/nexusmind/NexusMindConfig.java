@@ -0,0 +1,132 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Central place for NexusMind runtime settings.
+ * Every value can be overridden with a {@code -Dnexusmind.*} system property.
+ */
+public final class NexusMindConfig {
+
+    private NexusMindConfig() {
+    }
+
+    /** Which {@link LlmClient} backend to use: {@code http}, {@code stub} or {@code chat-ui}. */
+    public static String llmBackend() {
+        return get("nexusmind.llm.backend", "chat-ui");
+    }
+
+    /** OpenAI-compatible chat completions endpoint used by the HTTP backend. */
+    public static String llmEndpoint() {
+        return get("nexusmind.llm.endpoint", "http://localhost:8089/v1/chat/completions");
+    }
+
+    public static String llmModel() {
+        return get("nexusmind.llm.model", "gpt-4o");
+    }
+
+    /** Optional file holding the API key for the HTTP backend. */
+    public static String llmApiKeyFile() {
+        return get("nexusmind.llm.apiKeyFile", "C:/nexusmind_secrets/llm_api_key.txt");
+    }
+
+    /** Upper bound for a single model round trip. */
+    public static Duration llmTimeout() {
+        return Duration.ofSeconds(getInt("nexusmind.llm.timeoutSeconds", 180));
+    }
+
+    /** Port used when the local stub server is started in-process. */
+    public static int stubPort() {
+        return getInt("nexusmind.llm.stubPort", 8089);
+    }
+
+    /** How many files of a batch may wait on the model at the same time; 1 keeps the old sequential flow. */
+    public static int improveConcurrency() {
+        return getInt("nexusmind.improve.concurrency", 1);
+    }
+
+    /** Remote the working copy is cloned from; a local bare repository path works too. */
+    public static String repoUrl() {
+        return get("nexusmind.repo.url", "https://github.com/glacious83/NexusMind");
+    }
+
+    /** Working copy NexusMind improves. */
+    public static String repoLocalPath() {
+        return get("nexusmind.repo.localPath", "C:/Users/mmamouze/IdeaProjects/NexusMind");
+    }
+
+    /** Number of automation cycles to run before returning; 0 runs forever. */
+    public static int maxCycles() {
+        return getInt("nexusmind.cycles.max", 0);
+    }
+
+    /** Pause between two successful cycles. */
+    public static Duration cycleSleep() {
+        return Duration.ofSeconds(getInt("nexusmind.cycles.sleepSeconds", 60 * 60));
+    }
+
+    /** {@code off}, {@code record} or {@code replay}; see {@link FixtureStore}. */
+    public static String fixtureMode() {
+        return get("nexusmind.fixtures.mode", "off");
+    }
+
+    public static String fixtureFile() {
+        return get("nexusmind.fixtures.file", "nexusmind_fixtures.jsonl");
+    }
+
+    /**
+     * Profiles of the target application used to rank files ({@code nexusmind.profile}, comma separated):
+     * {@code .jfr} recordings or collapsed-stack files, the latter prefixed {@code alloc:} for allocation samples.
+     */
+    public static List<String> profiles() {
+        List<String> profiles = new ArrayList<>();
+        for (String entry : get("nexusmind.profile", "").split(",")) {
+            if (!entry.isBlank()) {
+                profiles.add(entry.trim());
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Reads a secret file from {@code nexusmind.secrets.dir}. Returns null with a warning when it is missing,
+     * so offline and replay runs do not need real credentials.
+     */
+    static String readSecret(String fileName) {
+        Path file = Path.of(get("nexusmind.secrets.dir", "C:/nexusmind_secrets"), fileName);
+        try {
+            return Files.readString(file).trim();
+        } catch (IOException e) {
+            System.err.println("[Config] Secret " + file + " not readable (" + e.getMessage() + "); continuing without it");
+            return null;
+        }
+    }
+
+    static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    static int getInt(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[Config] Invalid integer for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    static boolean getBoolean(String key, boolean defaultValue) {
+        String value = System.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
@@ -1,5 +1,7 @@
 package com.nexusmind;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -13,77 +15,138 @@ public class NexusMindOrchestrator {
     private final AIPlanner aiPlanner;
     private final FeatureCreatorAgent featureCreatorAgent;
     private final GitHubIssueManager issueManager;
+    private final LimitedLlmClient llmClient;
+    private final PromptCache promptCache;
 
     public NexusMindOrchestrator() {
-        this.repoManager = new RepoManager(
-                "https://github.com/glacious83/NexusMind",
-                "C:/Users/mmamouze/IdeaProjects/NexusMind"
-        );
+        this.repoManager = new RepoManager(NexusMindConfig.repoUrl(), NexusMindConfig.repoLocalPath());
         this.checkpointManager = new CheckpointManager();
         this.gitManager = new GitManager(repoManager.getLocalPath());
-        this.improvementAgent = new ImprovementAgent(checkpointManager, repoManager, gitManager);
+        this.llmClient = new LimitedLlmClient(LlmClient.fromConfig(), AdaptiveLimiter.fromConfig());
+        this.promptCache = PromptCache.fromConfig();
+        this.improvementAgent = new ImprovementAgent(checkpointManager, repoManager, gitManager, llmClient, promptCache);
         this.structureMapper = new ProjectStructureMapper(repoManager.getLocalPath());
-        this.aiPlanner = new AIPlanner();
+        this.aiPlanner = new AIPlanner(llmClient);
         this.featureCreatorAgent = new FeatureCreatorAgent(repoManager, checkpointManager);
         this.issueManager = new GitHubIssueManager();
     }
 
+    /**
+     * Runs evolution cycles until {@code nexusmind.cycles.max} is reached (forever when 0) and prints the
+     * per-phase wall time of each cycle, so runs against recorded fixtures can be compared across versions.
+     */
     public void startAutomationCycle() {
-        while (true) {
+        int failedCycles = 0;
+        List<Long> cycleMillis = new ArrayList<>();
+        int maxCycles = NexusMindConfig.maxCycles();
+        for (int cycle = 1; maxCycles <= 0 || cycle <= maxCycles; cycle++) {
             try {
                 System.out.println("\n==== NexusMind New Cycle Started ====");
+                long start = System.nanoTime();
 
                 // Step 1: Update repo
                 repoManager.updateRepo();
+                long updated = System.nanoTime();
 
                 // Step 2: Improve next batch
                 improvementAgent.improveNextFiles(5);
+                System.out.println("[Limiter] Model calls: " + llmClient.limiter());
+                long improved = System.nanoTime();
 
                 // Step 3: Plan further evolution
-                String projectSummary = structureMapper.generateProjectStructure();
-                String suggestions = aiPlanner.generateImprovementSuggestions(projectSummary);
-
-                if (suggestions != null && !suggestions.isBlank()) {
-
-                    // Check if suggestions are Java code or real improvements
-                    if (suggestions.contains("package ") || suggestions.contains("public class") || suggestions.contains("{")) {
-                        System.out.println("[Warning] AI returned Java code instead of suggestions. Skipping feature creation.");
-                    } else {
-                        List<String> suggestionList = Arrays.asList(suggestions.split("\n"));
-                        System.out.println("Received " + suggestionList.size() + " suggestions from AI.");
-
-                        for (String suggestion : suggestionList) {
-                            suggestion = suggestion.trim();
-                            if (suggestion.isEmpty()) continue;
-                            if (suggestion.length() < 5) continue;
-
-                            issueManager.createIssue(
-                                    suggestion.length() > 250 ? suggestion.substring(0, 250) + "..." : suggestion,
-                                    suggestion
-                            );
-                        }
-
-                        featureCreatorAgent.createFeaturesFromSuggestions(suggestionList);
-
-                        // After feature creation, manually commit new classes
-                        gitManager.addCommitPush("AI created new autonomous feature modules: " + String.join(", ", suggestionList));
-                    }
-                }
+                planEvolution();
+                long planned = System.nanoTime();
 
                 Notifier.sendSuccess("NexusMind successfully completed an evolution cycle.");
+                failedCycles = 0;
+                long total = (System.nanoTime() - start) / 1_000_000;
+                cycleMillis.add(total);
+                System.out.printf("[Benchmark] Cycle %d: update %d ms, improve %d ms, plan %d ms, total %d ms%n",
+                        cycle, (updated - start) / 1_000_000, (improved - updated) / 1_000_000,
+                        (planned - improved) / 1_000_000, total);
+
+                if (maxCycles > 0 && cycle == maxCycles) {
+                    break;
+                }
+                Duration sleep = NexusMindConfig.cycleSleep();
+                System.out.println("\nCycle completed. Sleeping for " + sleep.toSeconds() + " s...");
+                Thread.sleep(sleep.toMillis());
 
-                System.out.println("\nCycle completed. Sleeping for 1 hour...");
-                Thread.sleep(60 * 60 * 1000);
-
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             } catch (Exception e) {
                 String errorMessage = "Critical Error during cycle: " + e.getMessage();
                 System.err.println(errorMessage);
                 Notifier.sendError(errorMessage);
+                long backoff = AdaptiveLimiter.jitteredBackoffMillis(failedCycles++, 30 * 1000, 10 * 60 * 1000);
+                System.err.println("Retrying in " + backoff / 1000 + " s (failed cycles in a row: " + failedCycles + ")");
                 try {
-                    Thread.sleep(10 * 60 * 1000);
+                    Thread.sleep(backoff);
                 } catch (InterruptedException ex) {
                     Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        printBenchmarkSummary(cycleMillis);
+        llmClient.close();
+        gitManager.close();
+        Git.closeAll();
+    }
+
+    private void printBenchmarkSummary(List<Long> cycleMillis) {
+        if (cycleMillis.isEmpty()) {
+            return;
+        }
+        List<Long> sorted = cycleMillis.stream().sorted().toList();
+        System.out.printf("[Benchmark] %d cycles: min %d ms, median %d ms, max %d ms%n",
+                sorted.size(), sorted.getFirst(), sorted.get(sorted.size() / 2), sorted.getLast());
+        if (FixtureStore.shared().replaying()) {
+            System.out.println("[Benchmark] Fixtures used: " + FixtureStore.shared().summary());
+        }
+    }
+
+    /**
+     * Asks the AI planner for evolution suggestions and turns them into issues and feature skeletons.
+     * Skipped when the project structure is identical to the one planned for last time.
+     */
+    private void planEvolution() {
+        String projectSummary = structureMapper.generateProjectStructure();
+        String plannerKey = PromptCache.keyFor("planner\n" + projectSummary);
+        if (promptCache.lookup(plannerKey).isPresent()) {
+            System.out.println("Project structure unchanged since last planning. Skipping AI planner.");
+            return;
+        }
+        String suggestions = aiPlanner.generateImprovementSuggestions(projectSummary);
+        if (suggestions != null) {
+            promptCache.recordAccepted(plannerKey, suggestions, null);
+        }
+
+        if (suggestions != null && !suggestions.isBlank()) {
+
+            // Check if suggestions are Java code or real improvements
+            if (suggestions.contains("package ") || suggestions.contains("public class") || suggestions.contains("{")) {
+                System.out.println("[Warning] AI returned Java code instead of suggestions. Skipping feature creation.");
+            } else {
+                List<String> suggestionList = Arrays.asList(suggestions.split("\n"));
+                System.out.println("Received " + suggestionList.size() + " suggestions from AI.");
+
+                for (String suggestion : suggestionList) {
+                    suggestion = suggestion.trim();
+                    if (suggestion.isEmpty()) continue;
+                    if (suggestion.length() < 5) continue;
+
+                    issueManager.createIssue(
+                            suggestion.length() > 250 ? suggestion.substring(0, 250) + "..." : suggestion,
+                            suggestion
+                    );
                 }
+
+                List<String> created = featureCreatorAgent.createFeaturesFromSuggestions(suggestionList);
+
+                // After feature creation, commit exactly the new classes
+                gitManager.commitAndPush(created, "AI created new autonomous feature modules: " + String.join(", ", suggestionList));
             }
         }
     }
@@ -1,23 +1,13 @@
 package com.nexusmind;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 public class Notifier {
 
     private static final String WEBHOOK_URL = loadWebhookUrl();
 
     private static String loadWebhookUrl() {
-        try {
-            return new String(java.nio.file.Files.readAllBytes(
-                    java.nio.file.Paths.get("C:/nexusmind_secrets/slack_webhook.txt")
-            )).trim();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load Slack webhook URL from file: " + e.getMessage());
-        }
+        return NexusMindConfig.readSecret("slack_webhook.txt");
     }
 
     public static void main(String[] args) {
@@ -33,21 +23,15 @@ public class Notifier {
     }
 
     private static void sendMessage(String content) {
+        if (WEBHOOK_URL == null && !FixtureStore.shared().replaying()) {
+            System.out.println("[Notifier] No webhook configured: " + content);
+            return;
+        }
         try {
-            URL url = new URL(WEBHOOK_URL);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setDoOutput(true);
-
             String payload = "{\"text\":\"" + content.replace("\"", "\\\"") + "\"}"; // <<< CHANGE to "text"
 
-            try (OutputStream os = conn.getOutputStream()) {
-                byte[] input = payload.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            int responseCode = conn.getResponseCode();
+            int responseCode = HttpGateway.send("slack webhook", "POST", WEBHOOK_URL,
+                    Map.of("Content-Type", "application/json"), payload).status();
             if (responseCode != 204 && responseCode != 200) {
                 System.err.println("Failed to send webhook notification. HTTP code: " + responseCode);
             } else {
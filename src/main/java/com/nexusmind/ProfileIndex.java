@@ -0,0 +1,208 @@
+package com.nexusmind;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CPU and allocation samples of the target application, attributed to its source files.
+ * <p>
+ * Reads JFR recordings ({@code jdk.ExecutionSample} for CPU, {@code jdk.ObjectAllocationSample} weights for
+ * allocation, falling back to the TLAB events) and collapsed-stack files ({@code frame;frame;... count}, root
+ * first, as written by async-profiler or flamegraph tooling). Each stack is charged to its leaf-most frame whose
+ * class maps to a source file of the repository, so time spent in the JDK or a library counts against the
+ * project code that called it. Frames map to files by class name: {@code com.acme.Foo$Bar.run} becomes
+ * {@code com/acme/Foo.java}, matched against the path suffixes of the indexed sources.
+ */
+public class ProfileIndex {
+
+    private static final int CPU = 0;
+    private static final int ALLOC = 1;
+
+    /** A method and its share of all CPU and allocation samples, each in [0, 1]. */
+    public record MethodHeat(String method, double cpuShare, double allocShare) {
+    }
+
+    private final Set<String> sourceSuffixes;
+    private final Map<String, long[]> fileSamples = new HashMap<>();
+    private final Map<String, Map<String, long[]>> methodSamples = new HashMap<>();
+    private final long[] totals = new long[2];
+    private double maxFileShare;
+
+    private ProfileIndex(Set<String> sourceSuffixes) {
+        this.sourceSuffixes = sourceSuffixes;
+    }
+
+    /**
+     * Loads the given profiles. Entries ending in {@code .jfr} are JFR recordings and contribute both sample
+     * kinds; other entries are collapsed stacks counted as CPU samples unless prefixed with {@code alloc:}.
+     * {@code sourceSuffixes} holds every {@code package/path/Class.java} suffix of the repository's sources.
+     */
+    public static ProfileIndex load(List<String> profiles, Set<String> sourceSuffixes) {
+        ProfileIndex index = new ProfileIndex(sourceSuffixes);
+        for (String profile : profiles) {
+            boolean alloc = profile.startsWith("alloc:");
+            Path path = Path.of(alloc ? profile.substring("alloc:".length()) : profile);
+            try {
+                if (path.getFileName().toString().endsWith(".jfr")) {
+                    index.readJfr(path);
+                } else {
+                    index.readCollapsed(path, alloc ? ALLOC : CPU);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[Profile] Skipping unreadable profile " + path + ": " + e.getMessage());
+            }
+        }
+        index.fileSamples.values().forEach(samples -> index.maxFileShare = Math.max(index.maxFileShare, index.share(samples)));
+        System.out.println("[Profile] " + index.totals[CPU] + " CPU and " + index.totals[ALLOC]
+                + " allocation samples mapped to " + index.fileSamples.size() + " files");
+        return index;
+    }
+
+    public boolean isEmpty() {
+        return fileSamples.isEmpty();
+    }
+
+    /**
+     * Score in [0, 200] proportional to the file's mean share of CPU and allocation samples, the hottest file
+     * scoring 200 so profiled files always outrank history and path heuristics.
+     */
+    public int score(Path file) {
+        long[] samples = fileSamples.get(suffixOf(file));
+        return samples == null || maxFileShare == 0 ? 0 : (int) Math.round(200 * share(samples) / maxFileShare);
+    }
+
+    /** The hottest methods of {@code file}, hottest first, at most {@code limit}. */
+    public List<MethodHeat> hotMethods(Path file, int limit) {
+        Map<String, long[]> methods = methodSamples.get(suffixOf(file));
+        if (methods == null) {
+            return List.of();
+        }
+        return methods.entrySet().stream()
+                .sorted((a, b) -> Double.compare(share(b.getValue()), share(a.getValue())))
+                .limit(limit)
+                .map(e -> new MethodHeat(e.getKey(), fraction(e.getValue()[CPU], totals[CPU]),
+                        fraction(e.getValue()[ALLOC], totals[ALLOC])))
+                .toList();
+    }
+
+    private double share(long[] samples) {
+        int kinds = (totals[CPU] > 0 ? 1 : 0) + (totals[ALLOC] > 0 ? 1 : 0);
+        return kinds == 0 ? 0 : (fraction(samples[CPU], totals[CPU]) + fraction(samples[ALLOC], totals[ALLOC])) / kinds;
+    }
+
+    private static double fraction(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    /** The longest known source suffix of {@code file}, or null when it was not indexed. */
+    private String suffixOf(Path file) {
+        String path = file.toString().replace('\\', '/');
+        for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+            String suffix = path.substring(slash + 1);
+            if (fileSamples.containsKey(suffix)) {
+                return suffix;
+            }
+        }
+        return fileSamples.containsKey(path) ? path : null;
+    }
+
+    private void readCollapsed(Path path, int kind) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.lastIndexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                long weight;
+                try {
+                    weight = Long.parseLong(line.substring(space + 1).trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                String[] frames = line.substring(0, space).split(";");
+                List<String> leafFirst = new ArrayList<>(frames.length);
+                for (int i = frames.length - 1; i >= 0; i--) {
+                    leafFirst.add(frames[i]);
+                }
+                charge(leafFirst, kind, weight);
+            }
+        }
+    }
+
+    private void readJfr(Path path) throws IOException {
+        ProfileIndex tlab = new ProfileIndex(sourceSuffixes);
+        try (RecordingFile recording = new RecordingFile(path)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                RecordedStackTrace stack = event.getStackTrace();
+                if (stack == null) {
+                    continue;
+                }
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> charge(jfrFrames(stack), CPU, 1);
+                    case "jdk.ObjectAllocationSample" -> charge(jfrFrames(stack), ALLOC, event.getLong("weight"));
+                    case "jdk.ObjectAllocationInNewTLAB" -> tlab.charge(jfrFrames(stack), ALLOC, event.getLong("tlabSize"));
+                    case "jdk.ObjectAllocationOutsideTLAB" -> tlab.charge(jfrFrames(stack), ALLOC, event.getLong("allocationSize"));
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (totals[ALLOC] == 0 && tlab.totals[ALLOC] > 0) {
+            tlab.fileSamples.forEach((file, samples) -> fileSamples.computeIfAbsent(file, k -> new long[2])[ALLOC] += samples[ALLOC]);
+            tlab.methodSamples.forEach((file, methods) -> methods.forEach((method, samples) -> methodSamples
+                    .computeIfAbsent(file, k -> new HashMap<>()).computeIfAbsent(method, k -> new long[2])[ALLOC] += samples[ALLOC]));
+            totals[ALLOC] += tlab.totals[ALLOC];
+        }
+    }
+
+    private static List<String> jfrFrames(RecordedStackTrace stack) {
+        List<String> frames = new ArrayList<>(stack.getFrames().size());
+        for (RecordedFrame frame : stack.getFrames()) {
+            if (frame.isJavaFrame()) {
+                frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName());
+            }
+        }
+        return frames;
+    }
+
+    /** Charges {@code weight} samples to the leaf-most frame that maps to a repository source. */
+    private void charge(List<String> leafFirst, int kind, long weight) {
+        totals[kind] += weight;
+        for (String frame : leafFirst) {
+            String name = frame.replaceFirst("_\\[.]$", "");
+            int paren = name.indexOf('(');
+            if (paren >= 0) {
+                name = name.substring(0, paren);
+            }
+            name = name.replace('/', '.');
+            int dot = name.lastIndexOf('.');
+            if (dot <= 0) {
+                continue;
+            }
+            String className = name.substring(0, dot);
+            int nested = className.indexOf('$');
+            String suffix = (nested >= 0 ? className.substring(0, nested) : className).replace('.', '/') + ".java";
+            if (sourceSuffixes.contains(suffix)) {
+                String method = (nested >= 0 ? className.substring(nested + 1) + "." : "") + name.substring(dot + 1);
+                fileSamples.computeIfAbsent(suffix, k -> new long[2])[kind] += weight;
+                methodSamples.computeIfAbsent(suffix, k -> new HashMap<>())
+                        .computeIfAbsent(method, k -> new long[2])[kind] += weight;
+                return;
+            }
+        }
+    }
+}
@@ -1,59 +1,264 @@
 package com.nexusmind;
 
-import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
+/**
+ * Renders the project tree for prompts within a token cap.
+ * <p>
+ * Rendering starts from the root and expands directories greedily, most relevant first: the directories on the
+ * way to the target file, then the others by tree distance from the target's directory. A directory that does not
+ * fit stays collapsed to one {@code - name/ (N files)} line, and a directory with more than
+ * {@code summarizeAbove} listed files shows a count instead of the names unless it holds the target. Per-directory
+ * views are memoized on the scanner's listing for that directory, which is only replaced when the directory's
+ * entries change, and whole renders are memoized per snapshot, target directory and budget, so an unchanged tree
+ * costs a map lookup.
+ */
 public class ProjectStructureMapper {
 
-    private final String projectRootPath;
-
-    private static final Set<String> IGNORE_DIRS = Set.of(
+    static final Set<String> IGNORE_DIRS = Set.of(
             ".git",
             ".idea",
             "target",
             "out"
     );
 
+    private static final int MEMO_RENDERS = 64;
+    private static final int BUDGET_STEP = 64;
+
+    /** What one directory contributes to a render; valid while {@code listing} is the scanner's current list. */
+    private record DirView(List<RepoScanner.Entry> listing, List<String> files, List<RepoScanner.Entry> subdirs,
+            int fileTokens) {
+    }
+
+    private final String projectRootPath;
+    private final int summarizeAbove;
+    private final Map<String, DirView> views = new HashMap<>();
+    private final Map<String, Integer> subtreeCounts = new HashMap<>();
+    private final Map<String, String> renders = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MEMO_RENDERS;
+        }
+    };
+    private RepoScanner.Snapshot renderedSnapshot;
+
     public ProjectStructureMapper(String projectRootPath) {
+        this(projectRootPath, 10);
+    }
+
+    public ProjectStructureMapper(String projectRootPath, int summarizeAbove) {
         this.projectRootPath = projectRootPath;
+        this.summarizeAbove = summarizeAbove;
     }
 
+    /** Renders the whole tree without a target, capped at {@code nexusmind.structure.maxTokens}. */
     public String generateProjectStructure() {
-        File root = new File(projectRootPath);
+        return render(null, maxTokens());
+    }
+
+    /** Cap applied to every render ({@code nexusmind.structure.maxTokens}, default 1500). */
+    public static int maxTokens() {
+        return NexusMindConfig.getInt("nexusmind.structure.maxTokens", 1500);
+    }
+
+    /**
+     * Renders the tree from the shared {@link RepoScanner} snapshot within {@code maxTokens}, expanding the
+     * directories closest to {@code target} first. A null target ranks directories by size only.
+     */
+    public synchronized String render(Path target, int maxTokens) {
+        RepoScanner.Snapshot snapshot = RepoScanner.forRoot(projectRootPath).snapshot();
+        if (snapshot != renderedSnapshot) {
+            refresh(snapshot);
+        }
+        int budget = Math.min(maxTokens, maxTokens());
+        budget = budget > BUDGET_STEP ? budget - budget % BUDGET_STEP : budget;
+        String targetDir = targetDirectory(snapshot, target);
+        String key = targetDir + "\0" + budget;
+        String cached = renders.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Set<String> expanded = chooseExpanded(targetDir, budget);
         List<String> lines = new ArrayList<>();
-        traverseDirectory(root, 0, lines);
-        return String.join("\n", lines);
+        if (expanded.contains("")) {
+            renderDirectory("", 0, targetDir, expanded, lines);
+        } else {
+            lines.add(collapsedLine(snapshot.root().getFileName().toString(), subtreeCounts.getOrDefault("", 0)));
+        }
+        String rendered = String.join("\n", lines);
+        renders.put(key, rendered);
+        return rendered;
     }
 
-    private void traverseDirectory(File directory, int depth, List<String> lines) {
-        if (!directory.isDirectory()) {
-            return;
+    /** Greedy expansion in relevance order while the rendered lines fit in {@code budget}. */
+    private Set<String> chooseExpanded(String targetDir, int budget) {
+        Comparator<String> relevance = Comparator.<String>comparingInt(dir -> distance(dir, targetDir))
+                .thenComparingInt(dir -> subtreeCounts.getOrDefault(dir, 0))
+                .thenComparing(Comparator.naturalOrder());
+        PriorityQueue<String> candidates = new PriorityQueue<>(relevance);
+        candidates.add("");
+        Set<String> expanded = new HashSet<>();
+        int used = 0;
+        while (!candidates.isEmpty()) {
+            String dir = candidates.poll();
+            DirView view = views.get(dir);
+            int cost = expansionCost(view, dir.equals(targetDir));
+            if (used + cost > budget) {
+                continue;
+            }
+            used += cost;
+            expanded.add(dir);
+            for (RepoScanner.Entry subdir : view.subdirs()) {
+                if (subtreeCounts.getOrDefault(subdir.path(), 0) > 0) {
+                    candidates.add(subdir.path());
+                }
+            }
         }
+        return expanded;
+    }
 
-        if (IGNORE_DIRS.contains(directory.getName())) {
-            return;
+    /** Tokens added by replacing a directory's collapsed line with its children. */
+    private int expansionCost(DirView view, boolean isTarget) {
+        int cost = summarized(view, isTarget) ? lineTokens(summaryLine(view.files().size())) : view.fileTokens();
+        for (RepoScanner.Entry subdir : view.subdirs()) {
+            int count = subtreeCounts.getOrDefault(subdir.path(), 0);
+            if (count > 0) {
+                cost += lineTokens(collapsedLine(subdir.name(), count));
+            }
         }
+        return cost;
+    }
 
-        File[] files = directory.listFiles();
-        if (files == null) {
-            return;
+    private void renderDirectory(String directory, int depth, String targetDir, Set<String> expanded, List<String> lines) {
+        String prefix = "  ".repeat(depth);
+        DirView view = views.get(directory);
+        boolean summarized = summarized(view, directory.equals(targetDir));
+        boolean summaryWritten = false;
+        for (RepoScanner.Entry entry : view.listing()) {
+            if (entry.directory()) {
+                int count = subtreeCounts.getOrDefault(entry.path(), 0);
+                if (count == 0) {
+                    continue;
+                }
+                if (expanded.contains(entry.path())) {
+                    lines.add(prefix + "- " + entry.name() + "/");
+                    renderDirectory(entry.path(), depth + 1, targetDir, expanded, lines);
+                } else {
+                    lines.add(prefix + collapsedLine(entry.name(), count));
+                }
+            } else if (isListed(entry.name())) {
+                if (!summarized) {
+                    lines.add(prefix + "- " + entry.name());
+                } else if (!summaryWritten) {
+                    lines.add(prefix + summaryLine(view.files().size()));
+                    summaryWritten = true;
+                }
+            }
         }
+    }
 
-        for (File file : files) {
-            // skip hidden or ignored dirs/files
-            if (file.isDirectory() && IGNORE_DIRS.contains(file.getName())) {
-                continue;
+    private boolean summarized(DirView view, boolean isTarget) {
+        return !isTarget && view.files().size() > summarizeAbove;
+    }
+
+    /** Rebuilds the views whose listing changed, drops vanished directories and recounts subtrees. */
+    private void refresh(RepoScanner.Snapshot snapshot) {
+        views.keySet().retainAll(snapshot.children().keySet());
+        snapshot.children().forEach((dir, listing) -> {
+            DirView view = views.get(dir);
+            if (view == null || view.listing() != listing) {
+                views.put(dir, viewOf(listing));
             }
-            String prefix = "  ".repeat(depth);
-            if (file.isDirectory()) {
-                lines.add(prefix + "- " + file.getName() + "/");
-                traverseDirectory(file, depth + 1, lines);
-            } else if (file.getName().endsWith(".java") || file.getName().endsWith(".ahk") || file.getName().endsWith(".xml") || file.getName()
-                                                                                                                                     .endsWith(".json")) {
-                lines.add(prefix + "- " + file.getName());
+        });
+        subtreeCounts.clear();
+        countSubtree("");
+        renders.clear();
+        renderedSnapshot = snapshot;
+    }
+
+    private int countSubtree(String dir) {
+        DirView view = views.get(dir);
+        if (view == null) {
+            return 0;
+        }
+        int count = view.files().size();
+        for (RepoScanner.Entry subdir : view.subdirs()) {
+            count += countSubtree(subdir.path());
+        }
+        subtreeCounts.put(dir, count);
+        return count;
+    }
+
+    private static DirView viewOf(List<RepoScanner.Entry> listing) {
+        List<String> files = new ArrayList<>();
+        List<RepoScanner.Entry> subdirs = new ArrayList<>();
+        int fileTokens = 0;
+        for (RepoScanner.Entry entry : listing) {
+            if (entry.directory()) {
+                subdirs.add(entry);
+            } else if (isListed(entry.name())) {
+                files.add(entry.name());
+                fileTokens += lineTokens("- " + entry.name());
             }
         }
+        return new DirView(listing, List.copyOf(files), List.copyOf(subdirs), fileTokens);
+    }
+
+    /** Hops between two directories through their closest common ancestor; 0 on the target's own path. */
+    private static int distance(String dir, String targetDir) {
+        if (targetDir == null) {
+            return depth(dir);
+        }
+        if (targetDir.equals(dir) || dir.isEmpty() || targetDir.startsWith(dir + "/")) {
+            return 0;
+        }
+        String[] a = dir.split("/");
+        String[] b = targetDir.isEmpty() ? new String[0] : targetDir.split("/");
+        int common = 0;
+        while (common < a.length && common < b.length && a[common].equals(b[common])) {
+            common++;
+        }
+        return a.length + b.length - 2 * common;
+    }
+
+    private static int depth(String dir) {
+        return dir.isEmpty() ? 0 : dir.split("/").length;
+    }
+
+    private static String targetDirectory(RepoScanner.Snapshot snapshot, Path target) {
+        if (target == null) {
+            return null;
+        }
+        Path absolute = target.toAbsolutePath().normalize();
+        if (!absolute.startsWith(snapshot.root())) {
+            return null;
+        }
+        Path parent = snapshot.root().relativize(absolute).getParent();
+        return parent == null ? "" : parent.toString().replace('\\', '/');
+    }
+
+    private static boolean isListed(String name) {
+        return name.endsWith(".java") || name.endsWith(".ahk") || name.endsWith(".xml") || name.endsWith(".json");
+    }
+
+    private static String collapsedLine(String name, int files) {
+        return "- " + name + "/ (" + files + " files)";
+    }
+
+    private static String summaryLine(int files) {
+        return "- (" + files + " files)";
+    }
+
+    private static int lineTokens(String line) {
+        return TokenEstimator.estimate(line) + 1;
     }
 }
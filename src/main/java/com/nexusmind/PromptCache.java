@@ -0,0 +1,186 @@
+package com.nexusmind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent, content-addressed cache of model outcomes keyed by a SHA-256 of the exact prompt.
+ * <p>
+ * The index (outcome, commit message, reject reason, size) lives in {@code index.json}, ordered from least to
+ * most recently used; accepted code is stored next to it as one file per key. Entries are evicted in LRU
+ * order once either the entry count or the total payload size exceeds its limit. Lookups refresh the
+ * in-memory recency order, which is persisted with the next write.
+ */
+public class PromptCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptCache.class);
+    private static final String INDEX_FILE = "index.json";
+
+    public enum Outcome { ACCEPTED, REJECTED }
+
+    public record Entry(Outcome outcome, String commitMessage, String reason, long sizeBytes) {
+    }
+
+    private final Path directory;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public PromptCache(Path directory, int maxEntries, long maxBytes) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        loadIndex();
+    }
+
+    public static PromptCache fromConfig() {
+        return new PromptCache(
+                Paths.get(NexusMindConfig.get("nexusmind.cache.dir", "nexusmind_cache")),
+                NexusMindConfig.getInt("nexusmind.cache.maxEntries", 5000),
+                NexusMindConfig.getInt("nexusmind.cache.maxMegabytes", 64) * 1024L * 1024L);
+    }
+
+    /** SHA-256 of the prompt text, used as the cache key. */
+    public static String keyFor(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public synchronized Optional<Entry> lookup(String key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    /** Returns the accepted code stored for {@code key}, if any. */
+    public synchronized Optional<String> acceptedCode(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.outcome() != Outcome.ACCEPTED) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(payloadPath(key)));
+        } catch (IOException e) {
+            logger.warn("Cached code for {} is unreadable; dropping entry", key);
+            remove(key);
+            saveIndex();
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void recordAccepted(String key, String code, String commitMessage) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(payloadPath(key), code);
+        } catch (IOException e) {
+            logger.error("Failed to write cache payload for {}: {}", key, e.getMessage());
+            return;
+        }
+        put(key, new Entry(Outcome.ACCEPTED, commitMessage, null, code.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    public synchronized void recordRejected(String key, String reason) {
+        put(key, new Entry(Outcome.REJECTED, null, reason, reason == null ? 0 : reason.length()));
+    }
+
+    private void put(String key, Entry entry) {
+        remove(key, entry.outcome() != Outcome.ACCEPTED);
+        entries.put(key, entry);
+        totalBytes += entry.sizeBytes();
+        evict();
+        saveIndex();
+    }
+
+    private void remove(String key) {
+        remove(key, true);
+    }
+
+    private void remove(String key, boolean deletePayload) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            totalBytes -= old.sizeBytes();
+            if (deletePayload && old.outcome() == Outcome.ACCEPTED) {
+                try {
+                    Files.deleteIfExists(payloadPath(key));
+                } catch (IOException e) {
+                    logger.warn("Failed to delete cache payload {}: {}", key, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void evict() {
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && !entries.isEmpty()) {
+            remove(entries.keySet().iterator().next());
+        }
+    }
+
+    private Path payloadPath(String key) {
+        return directory.resolve(key + ".code");
+    }
+
+    private void loadIndex() {
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return;
+        }
+        try {
+            for (JsonNode node : mapper.readTree(index.toFile())) {
+                Entry entry = new Entry(
+                        Outcome.valueOf(node.path("outcome").asText()),
+                        node.path("commit_message").asText(null),
+                        node.path("reason").asText(null),
+                        node.path("size").asLong(0));
+                entries.put(node.path("key").asText(), entry);
+                totalBytes += entry.sizeBytes();
+            }
+            logger.info("Loaded prompt cache with {} entries ({} bytes)", entries.size(), totalBytes);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Prompt cache index unreadable, starting empty: {}", e.getMessage());
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+
+    /** Writes the index in LRU order through a temp file so a crash never leaves it half written. */
+    private void saveIndex() {
+        ArrayNode root = mapper.createArrayNode();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            ObjectNode node = root.addObject();
+            node.put("key", e.getKey());
+            node.put("outcome", e.getValue().outcome().name());
+            node.put("commit_message", e.getValue().commitMessage());
+            node.put("reason", e.getValue().reason());
+            node.put("size", e.getValue().sizeBytes());
+        }
+        try {
+            Files.createDirectories(directory);
+            Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+            mapper.writeValue(tmp.toFile(), root);
+            Files.move(tmp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save prompt cache index: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.nexusmind;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Packs several small files into one prompt and splits the packed reply back into per-file sections.
+ * Each file travels between {@code [FILE path]} and {@code [/FILE]} markers in both directions.
+ */
+public final class PromptPacker {
+
+    static final String FILE_OPEN = "[FILE %s]";
+    static final String FILE_CLOSE = "[/FILE]";
+    private static final Pattern FILE_SECTION = Pattern.compile("\\[FILE\\s+([^\\]]+)\\](.*?)\\[/FILE\\]", Pattern.DOTALL);
+
+    private PromptPacker() {
+    }
+
+    /**
+     * First-fit decreasing bin packing by token size. Bins keep the original relative order of their items
+     * so packed prompts stay deterministic.
+     */
+    public static <T> List<List<T>> pack(List<T> items, ToIntFunction<T> size, int capacity, int maxItemsPerBin) {
+        List<T> bySize = new ArrayList<>(items);
+        bySize.sort(Comparator.comparingInt(size).reversed());
+        List<List<T>> bins = new ArrayList<>();
+        List<Integer> used = new ArrayList<>();
+        for (T item : bySize) {
+            int itemSize = size.applyAsInt(item);
+            int target = -1;
+            for (int b = 0; b < bins.size(); b++) {
+                if (bins.get(b).size() < maxItemsPerBin && used.get(b) + itemSize <= capacity) {
+                    target = b;
+                    break;
+                }
+            }
+            if (target < 0) {
+                bins.add(new ArrayList<>());
+                used.add(0);
+                target = bins.size() - 1;
+            }
+            bins.get(target).add(item);
+            used.set(target, used.get(target) + itemSize);
+        }
+        for (List<T> bin : bins) {
+            bin.sort(Comparator.comparingInt(items::indexOf));
+        }
+        return bins;
+    }
+
+    /** Splits a packed reply into sections keyed by the path given in each {@code [FILE ...]} marker. */
+    public static Map<String, String> split(String reply) {
+        Map<String, String> sections = new LinkedHashMap<>();
+        if (reply == null) {
+            return sections;
+        }
+        Matcher matcher = FILE_SECTION.matcher(reply);
+        while (matcher.find()) {
+            sections.put(matcher.group(1).trim(), matcher.group(2).trim());
+        }
+        return sections;
+    }
+
+    /**
+     * Finds the section for {@code relativePath}, falling back to a unique match on the file name in case the
+     * model shortened the path.
+     */
+    public static String sectionFor(Map<String, String> sections, String relativePath) {
+        String exact = sections.get(relativePath);
+        if (exact != null) {
+            return exact;
+        }
+        String fileName = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        String match = null;
+        for (Map.Entry<String, String> entry : sections.entrySet()) {
+            String key = entry.getKey();
+            if (key.equals(fileName) || key.endsWith("/" + fileName)) {
+                if (match != null) {
+                    return null;
+                }
+                match = entry.getValue();
+            }
+        }
+        return match;
+    }
+}
@@ -0,0 +1,162 @@
+package com.nexusmind;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes the evolution branch in the background so commits never wait on the remote.
+ * <p>
+ * {@link #request(String, String)} only records that the branch has new commits; the worker thread pushes the
+ * branch tip as it is when the push starts, so every commit made meanwhile rides along in one push. A failed
+ * push is retried after a jittered exponential backoff ({@code nexusmind.push.backoffBaseMillis}, default 5000,
+ * up to {@code nexusmind.push.backoffMaxMillis}, default 300000); the first failure of a streak and the
+ * recovery are reported through {@link Notifier}.
+ */
+public class PushWorker implements AutoCloseable {
+
+    /** Outcome of one push attempt; {@code coalesced} is the number of commit requests it covered. */
+    public record PushResult(String branch, String commit, int coalesced, int attempt, long millis, boolean ok,
+            String error) {
+    }
+
+    private final Git git;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread thread;
+    private String branch;
+    private String lastMessage;
+    private int pending;
+    private boolean pushing;
+    private boolean closed;
+    private PushResult lastResult;
+
+    public PushWorker(Git git) {
+        this.git = git;
+        this.backoffBaseMillis = NexusMindConfig.getInt("nexusmind.push.backoffBaseMillis", 5000);
+        this.backoffMaxMillis = NexusMindConfig.getInt("nexusmind.push.backoffMaxMillis", 300000);
+        this.thread = Thread.ofPlatform().daemon().name("nexusmind-push").start(this::run);
+    }
+
+    /** Schedules a push of {@code branch}; returns immediately. */
+    public void request(String branch, String commitMessage) {
+        lock.lock();
+        try {
+            this.branch = branch;
+            this.lastMessage = commitMessage;
+            pending++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PushResult lastResult() {
+        lock.lock();
+        try {
+            return lastResult;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Waits until every requested push went through; false when {@code timeout} elapsed first. */
+    public boolean flush(Duration timeout) {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while ((pending > 0 || pushing) && remaining > 0) {
+                remaining = changed.awaitNanos(remaining);
+            }
+            return pending == 0 && !pushing;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Gives pending pushes up to the network timeout to finish, then stops the worker. */
+    @Override
+    public void close() {
+        if (!flush(Git.networkTimeout())) {
+            System.err.println("[Push] Stopping with unpushed commits on " + branch);
+        }
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        int failures = 0;
+        try {
+            while (true) {
+                String target;
+                String message;
+                int batch;
+                lock.lock();
+                try {
+                    while (pending == 0 && !closed) {
+                        changed.await();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    target = branch;
+                    message = lastMessage;
+                    batch = pending;
+                    pending = 0;
+                    pushing = true;
+                } finally {
+                    lock.unlock();
+                }
+
+                String commit = git.resolve("refs/heads/" + target);
+                Git.Result push = git.run(Git.networkTimeout(), "push", "-u", "origin", target);
+                PushResult result = new PushResult(target, commit, batch, failures + 1, push.millis(), push.ok(),
+                        push.ok() ? null : push.describe());
+                report(result, message);
+                failures = push.ok() ? 0 : failures + 1;
+                lock.lock();
+                try {
+                    lastResult = result;
+                    if (!push.ok()) {
+                        pending += batch;
+                    }
+                    pushing = false;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (!push.ok()) {
+                    Thread.sleep(AdaptiveLimiter.jitteredBackoffMillis(failures - 1, backoffBaseMillis, backoffMaxMillis));
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void report(PushResult result, String message) {
+        if (result.ok()) {
+            System.out.println("[Push] Pushed " + result.branch() + " at " + result.commit() + " (" + result.coalesced()
+                    + " commits coalesced) in " + result.millis() + " ms");
+            Notifier.sendSuccess("Pushed improvements to evolution branch: " + result.branch()
+                    + (result.attempt() > 1 ? " after " + result.attempt() + " attempts" : "")
+                    + "\nCommit Message: " + message);
+        } else {
+            System.err.println("[Push] Attempt " + result.attempt() + " failed: " + result.error());
+            if (result.attempt() == 1) {
+                Notifier.sendError("❌ Git push failed, retrying in the background: " + result.error());
+            }
+        }
+    }
+}
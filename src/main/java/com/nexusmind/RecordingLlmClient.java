@@ -0,0 +1,58 @@
+package com.nexusmind;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link LlmClient} decorator that writes every prompt and its reply (or failure) to the {@link FixtureStore},
+ * so the run can later be replayed offline by {@link ReplayLlmClient}.
+ */
+public class RecordingLlmClient implements LlmClient {
+
+    private final LlmClient delegate;
+    private final FixtureStore fixtures;
+
+    public RecordingLlmClient(LlmClient delegate, FixtureStore fixtures) {
+        this.delegate = delegate;
+        this.fixtures = fixtures;
+    }
+
+    /** Requests that can stand in for each other during replay share the first line of the prompt. */
+    static String groupFor(String prompt) {
+        String firstLine = prompt.strip().lines().findFirst().orElse("");
+        return "llm " + (firstLine.length() > 80 ? firstLine.substring(0, 80) : firstLine);
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(String prompt) {
+        return recorded(prompt, delegate.complete(prompt));
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> stream(String prompt, ReplyListener listener) {
+        return recorded(prompt, delegate.stream(prompt, listener));
+    }
+
+    private CompletableFuture<LlmResponse> recorded(String prompt, CompletableFuture<LlmResponse> reply) {
+        long start = System.nanoTime();
+        return LlmClient.cancelOnFailure(reply.whenComplete((response, error) -> {
+            long latency = response != null ? response.latencyMillis() : (System.nanoTime() - start) / 1_000_000;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            String failure = cause == null ? null
+                    : cause instanceof ReplyAbortedException ? "aborted: " + cause.getMessage()
+                    : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            fixtures.record("llm", groupFor(prompt), PromptCache.keyFor(prompt), prompt,
+                    response != null ? response.text() : null, 0, failure, latency);
+        }), reply);
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
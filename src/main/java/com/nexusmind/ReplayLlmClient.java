@@ -0,0 +1,61 @@
+package com.nexusmind;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link LlmClient} that answers from recorded fixtures instead of a model. Each reply is delayed according
+ * to {@code nexusmind.replay.llmLatency}; recorded aborts and timeouts fail the same way again. Prompts with
+ * no fixture at all get the {@link LocalStubLlmServer} echo reply, so a cycle always runs to completion.
+ */
+public class ReplayLlmClient implements LlmClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayLlmClient.class);
+
+    private final FixtureStore fixtures;
+    private final LatencyModel latency;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ReplayLlmClient(FixtureStore fixtures, LatencyModel latency) {
+        this.fixtures = fixtures;
+        this.latency = latency;
+    }
+
+    @Override
+    public CompletableFuture<LlmResponse> complete(String prompt) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            FixtureStore.Exchange exchange = fixtures.take(RecordingLlmClient.groupFor(prompt), PromptCache.keyFor(prompt))
+                    .orElse(null);
+            if (exchange == null) {
+                logger.warn("No fixture for prompt; replying with stub echo");
+                return new LlmResponse(LocalStubLlmServer.replyFor(prompt), name(), 0);
+            }
+            latency.pause(exchange.latencyMillis());
+            if (exchange.error() != null) {
+                throw new CompletionException(exchange.error().startsWith("aborted: ")
+                        ? new ReplyAbortedException(exchange.error().substring("aborted: ".length()))
+                        : new TimeoutException("Replayed failure: " + exchange.error()));
+            }
+            return new LlmResponse(exchange.response() == null ? "" : exchange.response(), name(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }, executor);
+    }
+
+    @Override
+    public String name() {
+        return "replay";
+    }
+
+    @Override
+    public void close() {
+        logger.info("Model fixtures replayed: {}", fixtures.summary());
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,13 @@
+package com.nexusmind;
+
+/**
+ * Signals that a reply was cancelled mid-generation because it could no longer be accepted.
+ */
+public class ReplyAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReplyAbortedException(String reason) {
+        super(reason);
+    }
+}
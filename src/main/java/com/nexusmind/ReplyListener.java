@@ -0,0 +1,29 @@
+package com.nexusmind;
+
+/**
+ * Receives a model reply piece by piece while it is being generated.
+ */
+@FunctionalInterface
+public interface ReplyListener {
+
+    /**
+     * Called for every new piece of the reply, in order.
+     *
+     * @return {@code false} to stop the generation; the request then fails with {@link ReplyAbortedException}
+     */
+    boolean onChunk(CharSequence chunk);
+
+    /**
+     * Called once after the last chunk of a reply that was not stopped.
+     *
+     * @return {@code false} to reject the complete reply, which then fails like an aborted one
+     */
+    default boolean finish() {
+        return true;
+    }
+
+    /** Why the listener stopped the reply, reported in the resulting {@link ReplyAbortedException}. */
+    default String abortReason() {
+        return "reply rejected by listener";
+    }
+}
@@ -1,84 +1,170 @@
 package com.nexusmind;
 
 import java.io.File;
-import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class RepoManager {
 
-    private final String repoUrl;
     private final String localPath;
+    private final RepoSync repoSync;
+    private final WorkQueue workQueue;
+    private final ChangeTracker changeTracker;
+    private final SymbolIndex symbolIndex = new SymbolIndex();
+    private final HotnessScorer hotness;
+    private final List<String> profiles = NexusMindConfig.profiles();
+    private volatile ProfileIndex profile;
+    private long profileStamp;
+    private volatile boolean symbolsLoaded;
+    private String fileSetFingerprint;
 
     public RepoManager(String repoUrl, String localPath) {
-        this.repoUrl = repoUrl;
         this.localPath = localPath;
+        this.workQueue = new WorkQueue(Path.of("work_queue.json"), path -> getPriorityScore(new File(path)));
+        this.repoSync = new RepoSync(repoUrl, localPath);
+        this.changeTracker = new ChangeTracker(localPath);
+        this.hotness = NexusMindConfig.getBoolean("nexusmind.priority.hotness", true)
+                ? new HotnessScorer(localPath, Path.of("hotness.json")) : null;
     }
 
     public void updateRepo() {
-        File repoDir = new File(localPath);
-        if (repoDir.exists()) {
-            System.out.println("Repository exists. Pulling latest changes...");
-            runCommand(new String[]{"git", "-C", localPath, "pull"});
+        repoSync.sync();
+        syncIndexes();
+    }
+
+    /**
+     * Brings the scanner snapshot and the work queue up to date with what changed since they were last synced:
+     * the commits between the queue's fingerprint and the new HEAD plus the uncommitted changes seen by the
+     * watcher. Falls back to a full rescan when that range is unknown (first run, rewritten history, no git)
+     * or when the watcher lost events.
+     */
+    private void syncIndexes() {
+        RepoScanner scanner = RepoScanner.forRoot(localPath);
+        String head = changeTracker.head();
+        String syncedTo = workQueue.fingerprint();
+        boolean hotnessMoved = hotness != null && hotness.update(head);
+        Set<String> changed = changeTracker.overflowed() ? null : changeTracker.changedBetween(syncedTo, head);
+        if (changed == null) {
+            System.out.println("[ChangeTracker] No usable change range; rescanning the repository");
+            scanner.invalidate();
+            // Rebuilt (and rescored) from the fresh snapshot, even when HEAD did not move.
+            workQueue.invalidate();
+            changeTracker.resetOverflow();
+            symbolsLoaded = false;
         } else {
-            System.out.println("Cloning repository...");
-            runCommand(new String[]{"git", "clone", repoUrl, localPath});
+            changed.addAll(changeTracker.drainWatched());
+            scanner.applyChanges(changed);
+            Path root = Path.of(localPath).toAbsolutePath().normalize();
+            List<String> added = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            for (String path : changed) {
+                if (!path.endsWith(".java")) {
+                    continue;
+                }
+                Path file = root.resolve(path);
+                if (symbolsLoaded) {
+                    symbolIndex.update(file);
+                }
+                if (!Files.isRegularFile(file)) {
+                    removed.add(file.toString());
+                } else if (!scanner.isExcluded(path, false)) {
+                    added.add(file.toString());
+                }
+            }
+            workQueue.applyChanges(added, removed, head);
+            System.out.println("[ChangeTracker] " + changed.size() + " paths changed since " + syncedTo);
+        }
+        boolean profileMoved = reloadProfile(scanner);
+        if (changed != null && (hotnessMoved || profileMoved)) {
+            workQueue.rescore();
         }
+        fileSetFingerprint = head;
+        changeTracker.watch(scanner.snapshot().children().keySet());
     }
 
-    private void runCommand(String[] command) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.inheritIO();
-            Process process = pb.start();
-            process.waitFor();
-        } catch (IOException | InterruptedException e) {
-            System.err.println("Error running command: " + e.getMessage());
+    /**
+     * (Re)loads the configured profiles when they were modified since the last load. Frames are matched
+     * against the sources of the current snapshot, so classes added later are mapped at the next reload.
+     */
+    private boolean reloadProfile(RepoScanner scanner) {
+        if (profiles.isEmpty()) {
+            return false;
         }
+        long stamp = 0;
+        for (String entry : profiles) {
+            File file = new File(entry.startsWith("alloc:") ? entry.substring("alloc:".length()) : entry);
+            stamp = 31 * stamp + file.lastModified();
+        }
+        if (profile != null && stamp == profileStamp) {
+            return false;
+        }
+        Set<String> suffixes = new HashSet<>();
+        for (RepoScanner.Entry file : scanner.snapshot().files()) {
+            if (!file.name().endsWith(".java")) {
+                continue;
+            }
+            String relative = file.path();
+            suffixes.add(relative);
+            for (int slash = relative.indexOf('/'); slash >= 0; slash = relative.indexOf('/', slash + 1)) {
+                suffixes.add(relative.substring(slash + 1));
+            }
+        }
+        profile = ProfileIndex.load(profiles, suffixes);
+        profileStamp = stamp;
+        return true;
     }
 
+    /** Java files under {@code directory}, taken from the shared {@link RepoScanner} snapshot. */
     public List<File> listAllJavaFiles(File directory) {
         List<File> javaFiles = new ArrayList<>();
-        File[] files = directory.listFiles();
-        if (files == null) {
-            return javaFiles;
-        }
-        for (File file : files) {
-            if (file.isDirectory()) {
-                javaFiles.addAll(listAllJavaFiles(file));
-            } else if (file.getName().endsWith(".java")) {
-                javaFiles.add(file);
-            }
+        for (Path path : RepoScanner.forRoot(directory.getPath()).snapshot().filesEndingWith(".java")) {
+            javaFiles.add(path.toFile());
         }
         return javaFiles;
     }
 
+    /**
+     * Returns the file after {@code lastProcessedFile} in priority order. The queue is normally kept current by
+     * the deltas applied in {@link #updateRepo()}; it is rebuilt from the snapshot only when that fell back to a
+     * full rescan, or once per cycle when no git fingerprint is available.
+     */
     public String getNextFileToProcess(String lastProcessedFile) {
-        List<File> javaFiles = listAllJavaFiles(new File(localPath));
-        javaFiles.sort((a, b) -> {
-            int priorityA = getPriorityScore(a);
-            int priorityB = getPriorityScore(b);
-            if (priorityA != priorityB) {
-                return Integer.compare(priorityB, priorityA); // Descending
-            } else {
-                return a.getAbsolutePath().compareToIgnoreCase(b.getAbsolutePath());
+        if (!workQueue.isCurrent(fileSetFingerprint)) {
+            List<String> paths = new ArrayList<>();
+            for (File file : listAllJavaFiles(new File(localPath))) {
+                paths.add(file.getAbsolutePath());
             }
-        });
-
-        boolean foundLast = (lastProcessedFile == null);
+            String fingerprint = fileSetFingerprint != null ? fileSetFingerprint : "walk-" + System.nanoTime();
+            workQueue.rebuild(paths, fingerprint);
+            fileSetFingerprint = fingerprint;
+        }
+        return workQueue.next(lastProcessedFile);
+    }
 
-        for (File file : javaFiles) {
-            if (foundLast) {
-                return file.getAbsolutePath();
-            }
-            if (file.getAbsolutePath().equals(lastProcessedFile)) {
-                foundLast = true;
+    /**
+     * Profile heat (0-200, see {@link ProfileIndex}) when profiles are configured, plus git-history hotness
+     * (0-100, see {@link HotnessScorer}), plus a small path-based bonus that breaks ties and ranks files without
+     * history.
+     */
+    private int getPriorityScore(File file) {
+        ProfileIndex currentProfile = profile;
+        int heat = currentProfile == null ? 0 : currentProfile.score(file.toPath().toAbsolutePath().normalize());
+        int history = 0;
+        if (hotness != null) {
+            Path root = Path.of(localPath).toAbsolutePath().normalize();
+            Path path = file.toPath().toAbsolutePath().normalize();
+            if (path.startsWith(root)) {
+                history = hotness.score(root.relativize(path).toString().replace('\\', '/'));
             }
         }
-        return null;
+        return heat + history + getPathScore(file);
     }
 
-    private int getPriorityScore(File file) {
+    private int getPathScore(File file) {
         String path = file.getAbsolutePath().toLowerCase();
         String name = file.getName().toLowerCase();
 
@@ -97,11 +183,46 @@ public class RepoManager {
         return 5;
     }
 
+    /** Hottest profiled methods of {@code file}; empty without profiles or samples for it. */
+    public List<ProfileIndex.MethodHeat> hotMethods(File file) {
+        ProfileIndex currentProfile = profile;
+        return currentProfile == null ? List.of()
+                : currentProfile.hotMethods(file.toPath().toAbsolutePath().normalize(), NexusMindConfig.getInt("nexusmind.profile.hotMethods", 5));
+    }
+
     public String getLocalPath() {
         return localPath;
     }
 
+    /**
+     * Absolute paths of the files {@code file} uses, then of the files that use it, ranked by reference count
+     * (at most {@code nexusmind.deps.max}). The symbol index is built on first use and then kept current per
+     * changed file by {@link #updateRepo()}.
+     */
     public List<String> findRelatedDependencies(File file) {
-        return new ArrayList<>(); // TODO: Implement real dependency analysis later
+        loadSymbols();
+        List<String> dependencies = new ArrayList<>();
+        for (Path path : symbolIndex.related(file.toPath().toAbsolutePath().normalize(),
+                NexusMindConfig.getInt("nexusmind.deps.max", 8))) {
+            dependencies.add(path.toString());
+        }
+        return dependencies;
+    }
+
+    /** Files that use {@code file}, transitively up to {@code maxDepth} reference hops (see {@link SymbolIndex#dependents}). */
+    public Set<Path> findDependents(Path file, int maxDepth) {
+        loadSymbols();
+        return symbolIndex.dependents(file.toAbsolutePath().normalize(), maxDepth);
+    }
+
+    private void loadSymbols() {
+        if (!symbolsLoaded) {
+            synchronized (symbolIndex) {
+                if (!symbolsLoaded) {
+                    symbolIndex.rebuild(RepoScanner.forRoot(localPath).snapshot().filesEndingWith(".java"));
+                    symbolsLoaded = true;
+                }
+            }
+        }
     }
 }
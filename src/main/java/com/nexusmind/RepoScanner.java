@@ -0,0 +1,418 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * One-pass repository scanner shared by {@link RepoManager}, {@link ProjectStructureMapper} and
+ * {@link RepoAnalyzer}.
+ * <p>
+ * A single {@link Files#walkFileTree} pass reads names and {@link BasicFileAttributes} together, prunes
+ * {@link ProjectStructureMapper#IGNORE_DIRS} and everything matched by {@code .gitignore} files (nested ones
+ * included), and produces an immutable {@link Snapshot}. The snapshot is cached per root, so all consumers of a
+ * cycle render from the same scan; between cycles it is patched with {@link #applyChanges(Set)} or dropped
+ * with {@link #invalidate()}.
+ */
+public class RepoScanner {
+
+    private static final Map<Path, RepoScanner> SCANNERS = new ConcurrentHashMap<>();
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing(Entry::name);
+
+    /** A file or directory; {@code path} is relative to the root and uses '/' separators. */
+    public record Entry(String path, String name, boolean directory, long size, long modifiedMillis) {
+    }
+
+    /**
+     * Immutable scan result. {@code children} maps every directory ("" for the root) to its entries sorted by
+     * name; {@code fileCounts} holds the number of regular files directly inside each directory.
+     */
+    public record Snapshot(Path root, List<Entry> files, Map<String, List<Entry>> children,
+            Map<String, Integer> fileCounts, long scanMillis) {
+
+        public List<Entry> childrenOf(String directory) {
+            return children.getOrDefault(directory, List.of());
+        }
+
+        public List<Path> filesEndingWith(String suffix) {
+            List<Path> matches = new ArrayList<>();
+            for (Entry file : files) {
+                if (file.name().endsWith(suffix)) {
+                    matches.add(root.resolve(file.path()));
+                }
+            }
+            return matches;
+        }
+    }
+
+    private final Path root;
+    private final Map<String, List<IgnoreRule>> ignoreRules = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+
+    private RepoScanner(Path root) {
+        this.root = root;
+    }
+
+    public static RepoScanner forRoot(String root) {
+        return SCANNERS.computeIfAbsent(Path.of(root).toAbsolutePath().normalize(), RepoScanner::new);
+    }
+
+    /** Returns the cached snapshot, scanning the tree first if there is none. */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = scan();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Drops the cached snapshot; the next {@link #snapshot()} rescans. */
+    public void invalidate() {
+        snapshot = null;
+        ignoreRules.clear();
+    }
+
+    /**
+     * Patches the cached snapshot with changed paths (relative, '/' separated) instead of rescanning: every
+     * path is stat'ed and added, updated or removed, so the cost follows the size of the change. A changed
+     * {@code .gitignore} can hide or re-include whole subtrees, so it drops the snapshot instead.
+     */
+    public synchronized void applyChanges(Set<String> paths) {
+        Snapshot current = snapshot;
+        if (current == null || paths.isEmpty()) {
+            return;
+        }
+        for (String path : paths) {
+            if (path.equals(".gitignore") || path.endsWith("/.gitignore")) {
+                invalidate();
+                return;
+            }
+        }
+        TreeMap<String, Entry> files = new TreeMap<>();
+        for (Entry file : current.files()) {
+            files.put(file.path(), file);
+        }
+        Map<String, List<Entry>> children = new HashMap<>(current.children());
+        Set<String> touched = new HashSet<>();
+
+        for (String path : new TreeSet<>(paths)) {
+            Path absolute = root.resolve(path);
+            BasicFileAttributes attrs = null;
+            try {
+                attrs = Files.readAttributes(absolute, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // gone
+            }
+            boolean directory = attrs != null && attrs.isDirectory();
+            if (attrs != null && (isExcluded(path, directory) || !(directory || attrs.isRegularFile()))) {
+                continue;
+            }
+            removeEntry(children, touched, files, path);
+            if (attrs == null) {
+                continue;
+            }
+            Entry entry = new Entry(path, absolute.getFileName().toString(), directory,
+                    directory ? 0 : attrs.size(), attrs.lastModifiedTime().toMillis());
+            ensureParents(children, touched, path);
+            editableChildren(children, touched, parentOf(path)).add(entry);
+            if (directory) {
+                children.putIfAbsent(path, List.of());
+            } else {
+                files.put(path, entry);
+            }
+        }
+
+        Map<String, Integer> fileCounts = new HashMap<>(current.fileCounts());
+        for (String dir : touched) {
+            List<Entry> entries = children.get(dir);
+            if (entries == null) {
+                fileCounts.remove(dir);
+                continue;
+            }
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(BY_NAME);
+            children.put(dir, List.copyOf(sorted));
+            int count = (int) sorted.stream().filter(e -> !e.directory()).count();
+            if (count == 0) {
+                fileCounts.remove(dir);
+            } else {
+                fileCounts.put(dir, count);
+            }
+        }
+        snapshot = new Snapshot(root, List.copyOf(files.values()), Map.copyOf(children), Map.copyOf(fileCounts),
+                current.scanMillis());
+        System.out.println("[Scanner] Applied " + paths.size() + " changed paths to the snapshot");
+    }
+
+    /**
+     * Whether {@code relative} is hidden by {@link ProjectStructureMapper#IGNORE_DIRS} or a .gitignore rule,
+     * checking every enclosing directory as well.
+     */
+    public boolean isExcluded(String relative, boolean directory) {
+        Deque<List<IgnoreRule>> stack = new ArrayDeque<>();
+        stack.push(rulesFor(""));
+        String[] parts = relative.split("/");
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                current.append('/');
+            }
+            current.append(parts[i]);
+            boolean isDir = i < parts.length - 1 || directory;
+            if ((isDir && ProjectStructureMapper.IGNORE_DIRS.contains(parts[i]))
+                    || isIgnored(stack, current.toString(), isDir)) {
+                return true;
+            }
+            if (i < parts.length - 1) {
+                stack.push(rulesFor(current.toString()));
+            }
+        }
+        return false;
+    }
+
+    private List<IgnoreRule> rulesFor(String relativeDir) {
+        return ignoreRules.computeIfAbsent(relativeDir, dir -> readGitIgnore(root.resolve(dir), dir));
+    }
+
+    private void removeEntry(Map<String, List<Entry>> children, Set<String> touched, Map<String, Entry> files, String path) {
+        files.remove(path);
+        List<Entry> siblings = children.get(parentOf(path));
+        if (siblings != null && siblings.stream().anyMatch(e -> e.path().equals(path))) {
+            editableChildren(children, touched, parentOf(path)).removeIf(e -> e.path().equals(path));
+        }
+        if (children.containsKey(path)) {
+            // A directory disappeared or was replaced: drop its whole subtree.
+            String prefix = path + "/";
+            children.keySet().removeIf(dir -> dir.equals(path) || dir.startsWith(prefix));
+            files.keySet().removeIf(file -> file.startsWith(prefix));
+            touched.add(path);
+        }
+    }
+
+    private void ensureParents(Map<String, List<Entry>> children, Set<String> touched, String path) {
+        String parent = parentOf(path);
+        if (parent.isEmpty() || children.containsKey(parent)) {
+            return;
+        }
+        ensureParents(children, touched, parent);
+        Path absolute = root.resolve(parent);
+        editableChildren(children, touched, parentOf(parent)).add(new Entry(parent,
+                absolute.getFileName().toString(), true, 0, System.currentTimeMillis()));
+        children.put(parent, new ArrayList<>());
+        touched.add(parent);
+    }
+
+    private static List<Entry> editableChildren(Map<String, List<Entry>> children, Set<String> touched, String dir) {
+        if (touched.add(dir) || !(children.get(dir) instanceof ArrayList)) {
+            children.put(dir, new ArrayList<>(children.getOrDefault(dir, List.of())));
+        }
+        return children.get(dir);
+    }
+
+    private Snapshot scan() {
+        long start = System.nanoTime();
+        List<Entry> files = new ArrayList<>();
+        Map<String, List<Entry>> children = new HashMap<>();
+        Map<String, Integer> fileCounts = new HashMap<>();
+        Deque<List<IgnoreRule>> ignoreStack = new ArrayDeque<>();
+
+        if (Files.isDirectory(root)) {
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        String relative = relative(dir);
+                        if (!relative.isEmpty()) {
+                            if (ProjectStructureMapper.IGNORE_DIRS.contains(dir.getFileName().toString())
+                                    || isIgnored(ignoreStack, relative, true)) {
+                                return FileVisitResult.SKIP_SUBTREE;
+                            }
+                            add(children, parentOf(relative), new Entry(relative, dir.getFileName().toString(),
+                                    true, 0, attrs.lastModifiedTime().toMillis()));
+                        }
+                        children.putIfAbsent(relative, new ArrayList<>());
+                        ignoreStack.push(rulesFor(relative));
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String relative = relative(file);
+                        if (!attrs.isRegularFile() || isIgnored(ignoreStack, relative, false)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        Entry entry = new Entry(relative, file.getFileName().toString(), false,
+                                attrs.size(), attrs.lastModifiedTime().toMillis());
+                        files.add(entry);
+                        add(children, parentOf(relative), entry);
+                        fileCounts.merge(parentOf(relative), 1, Integer::sum);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        System.err.println("[Scanner] Skipping unreadable path " + file + ": " + e.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                        ignoreStack.pop();
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to scan repository " + root + ": " + e.getMessage(), e);
+            }
+        }
+
+        Map<String, List<Entry>> sortedChildren = new HashMap<>();
+        children.forEach((dir, entries) -> {
+            entries.sort(BY_NAME);
+            sortedChildren.put(dir, List.copyOf(entries));
+        });
+        files.sort(Comparator.comparing(Entry::path));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[Scanner] Scanned " + files.size() + " files in " + sortedChildren.size()
+                + " directories in " + millis + " ms");
+        return new Snapshot(root, List.copyOf(files), Map.copyOf(sortedChildren), Map.copyOf(fileCounts), millis);
+    }
+
+    private String relative(Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static String parentOf(String relative) {
+        int slash = relative.lastIndexOf('/');
+        return slash < 0 ? "" : relative.substring(0, slash);
+    }
+
+    private static void add(Map<String, List<Entry>> children, String dir, Entry entry) {
+        children.computeIfAbsent(dir, d -> new ArrayList<>()).add(entry);
+    }
+
+    /** Applies the rules of every enclosing .gitignore, outermost first; the last match wins. */
+    private static boolean isIgnored(Deque<List<IgnoreRule>> stack, String relative, boolean directory) {
+        boolean ignored = false;
+        var iterator = stack.descendingIterator();
+        while (iterator.hasNext()) {
+            for (IgnoreRule rule : iterator.next()) {
+                if (rule.matches(relative, directory)) {
+                    ignored = !rule.negated();
+                }
+            }
+        }
+        return ignored;
+    }
+
+    private static List<IgnoreRule> readGitIgnore(Path dir, String relativeDir) {
+        Path file = dir.resolve(".gitignore");
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        List<IgnoreRule> rules = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                IgnoreRule rule = IgnoreRule.parse(line.strip(), relativeDir);
+                if (rule != null) {
+                    rules.add(rule);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Scanner] Unreadable " + file + ": " + e.getMessage());
+        }
+        return rules;
+    }
+
+    /** One .gitignore line: glob pattern, negation, directory-only flag and anchoring, as git interprets them. */
+    private record IgnoreRule(Pattern pattern, boolean negated, boolean directoryOnly) {
+
+        static IgnoreRule parse(String line, String baseDir) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                return null;
+            }
+            boolean negated = line.startsWith("!");
+            String glob = negated ? line.substring(1) : line;
+            boolean directoryOnly = glob.endsWith("/");
+            if (directoryOnly) {
+                glob = glob.substring(0, glob.length() - 1);
+            }
+            if (glob.isEmpty()) {
+                return null;
+            }
+            boolean anchored = glob.contains("/");
+            if (glob.startsWith("/")) {
+                glob = glob.substring(1);
+            }
+            String prefix = baseDir.isEmpty() ? "" : Pattern.quote(baseDir + "/");
+            String regex = prefix + (anchored ? "" : "(?:.*/)?") + toRegex(glob);
+            return new IgnoreRule(Pattern.compile(regex), negated, directoryOnly);
+        }
+
+        boolean matches(String relative, boolean directory) {
+            return (directory || !directoryOnly) && pattern.matcher(relative).matches();
+        }
+
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    boolean slashFollows = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                    regex.append(slashFollows ? "(?:.*/)?" : ".*");
+                    i += slashFollows ? 2 : 1;
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    // [!...] negates, and a ']' right after the opening (or the '!') is a member, as in git.
+                    boolean negated = i + 1 < glob.length() && (glob.charAt(i + 1) == '!' || glob.charAt(i + 1) == '^');
+                    int body = negated ? i + 2 : i + 1;
+                    int end = glob.indexOf(']', body < glob.length() && glob.charAt(body) == ']' ? body + 1 : body);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        regex.append(negated ? "[^/" : "[");
+                        for (int j = body; j < end; j++) {
+                            char member = glob.charAt(j);
+                            if ("\\[]^&".indexOf(member) >= 0) {
+                                regex.append('\\');
+                            }
+                            regex.append(member);
+                        }
+                        regex.append(']');
+                        i = end;
+                    }
+                } else if ("\\.^$+{}()|".indexOf(c) >= 0) {
+                    regex.append('\\').append(c);
+                } else {
+                    regex.append(c);
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
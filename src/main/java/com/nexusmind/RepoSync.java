@@ -0,0 +1,150 @@
+package com.nexusmind;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Clones the working copy and keeps it current with a strategy suited to large repositories.
+ * <p>
+ * The first clone can be shallow ({@code nexusmind.sync.depth}), blob-less or otherwise partial
+ * ({@code nexusmind.sync.filter}, e.g. {@code blob:none}) and limited by a cone-mode sparse checkout to the
+ * source roots NexusMind works on ({@code nexusmind.sync.sparse}, comma separated). Later cycles run
+ * {@code fetch} and fast-forward the checked-out branch to its upstream; nothing is merged when the branches
+ * diverged. Every step checks its exit code and the time of each phase is reported.
+ */
+public class RepoSync {
+
+    private final String repoUrl;
+    private final String localPath;
+    private final int depth;
+    private final String filter;
+    private final List<String> sparsePaths;
+
+    public RepoSync(String repoUrl, String localPath) {
+        this(repoUrl, localPath, NexusMindConfig.getInt("nexusmind.sync.depth", 0),
+                NexusMindConfig.get("nexusmind.sync.filter", "").trim(),
+                splitList(NexusMindConfig.get("nexusmind.sync.sparse", "")));
+    }
+
+    public RepoSync(String repoUrl, String localPath, int depth, String filter, List<String> sparsePaths) {
+        this.repoUrl = repoUrl;
+        this.localPath = localPath;
+        this.depth = depth;
+        this.filter = filter;
+        this.sparsePaths = List.copyOf(sparsePaths);
+    }
+
+    /** Clones when the working copy is missing, otherwise fetches and fast-forwards; returns the phase timings. */
+    public Map<String, Long> sync() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        if (new File(localPath).exists()) {
+            update(phases);
+        } else {
+            System.out.println("Cloning repository...");
+            cloneRepo(phases);
+        }
+        System.out.println("[Sync] " + describe(phases) + " (total " + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        return phases;
+    }
+
+    private void cloneRepo(Map<String, Long> phases) {
+        List<String> options = new ArrayList<>();
+        if (depth > 0) {
+            options.add("--depth=" + depth);
+        }
+        if (!filter.isEmpty()) {
+            options.add("--filter=" + filter);
+        }
+        if (!sparsePaths.isEmpty()) {
+            options.add("--sparse");
+        }
+        timed(phases, "clone", () -> Git.cloneRepo(cloneUrl(), localPath, Git.networkTimeout(),
+                options.toArray(String[]::new))).orThrow();
+        if (!sparsePaths.isEmpty()) {
+            applySparse(Git.forRepo(localPath), phases);
+        }
+    }
+
+    private void update(Map<String, Long> phases) {
+        System.out.println("Repository exists. Fetching latest changes...");
+        Git git = Git.forRepo(localPath);
+        if (!sparsePaths.isEmpty()) {
+            Git.Result current = git.run("sparse-checkout", "list");
+            if (!current.ok() || !splitLines(current.stdout()).equals(sparsePaths)) {
+                applySparse(git, phases);
+            }
+        }
+        Git.Result fetch = timed(phases, "fetch", () -> git.run(Git.networkTimeout(), "fetch", "--prune", "origin"));
+        if (!fetch.ok()) {
+            System.err.println("[Sync] " + fetch.describe() + "; continuing with the local state");
+            return;
+        }
+        String branch = git.currentBranch();
+        // Not through the cat-file pipe: it reads the branch config once, before push -u may have set it.
+        Git.Result tracking = git.run("rev-parse", "-q", "--verify", "@{upstream}");
+        String upstream = tracking.ok() ? tracking.stdout().trim() : null;
+        if (branch == null || upstream == null) {
+            System.out.println("[Sync] " + (branch == null ? "Detached HEAD" : branch + " has no upstream")
+                    + "; nothing to fast-forward");
+            return;
+        }
+        if (upstream.equals(git.resolve("HEAD"))) {
+            return;
+        }
+        Git.Result merge = timed(phases, "fast-forward", () -> git.run("merge", "--ff-only", "-q", "@{upstream}"));
+        if (!merge.ok()) {
+            System.err.println("[Sync] " + branch + " cannot be fast-forwarded (" + merge.describe()
+                    + "); continuing with the local state");
+        }
+    }
+
+    private void applySparse(Git git, Map<String, Long> phases) {
+        List<String> args = new ArrayList<>(List.of("sparse-checkout", "set", "--cone"));
+        args.addAll(sparsePaths);
+        timed(phases, "sparse-checkout", () -> git.run(args.toArray(String[]::new))).orThrow();
+    }
+
+    /**
+     * Git ignores {@code --depth} and {@code --filter} for plain-path clones, so a local repository is cloned
+     * through a {@code file://} URL whenever either is set.
+     */
+    private String cloneUrl() {
+        Path path = Path.of(repoUrl);
+        if ((depth > 0 || !filter.isEmpty()) && !repoUrl.contains("://") && Files.isDirectory(path)) {
+            return path.toAbsolutePath().toUri().toString();
+        }
+        return repoUrl;
+    }
+
+    private static Git.Result timed(Map<String, Long> phases, String phase, Supplier<Git.Result> command) {
+        Git.Result result = command.get();
+        phases.merge(phase, result.millis(), Long::sum);
+        return result;
+    }
+
+    private static String describe(Map<String, Long> phases) {
+        if (phases.isEmpty()) {
+            return "Up to date";
+        }
+        List<String> parts = new ArrayList<>();
+        phases.forEach((phase, millis) -> parts.add(phase + " " + millis + " ms"));
+        return String.join(", ", parts);
+    }
+
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(",")).map(s -> s.trim().replaceAll("/+$", ""))
+                .filter(s -> !s.isEmpty()).toList();
+    }
+
+    private static List<String> splitLines(String value) {
+        return value.lines().map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -2,42 +2,29 @@ package com.nexusmind;
 
 public class SimpleJavaValidator {
 
+    private static final ThreadLocal<JavaStructureLexer> LEXER = ThreadLocal.withInitial(JavaStructureLexer::new);
+
+    /**
+     * Cheap structural pre-filter: at least one top-level type, and brackets, comments and literals that all
+     * close, as seen by one {@link JavaStructureLexer} pass.
+     */
     public static boolean isValidJavaClass(String javaContent) {
         if (javaContent == null || javaContent.isEmpty()) {
             return false;
         }
 
-        javaContent = javaContent.trim();
-
-        // Basic structural checks
-        if (!javaContent.startsWith("package ") && !javaContent.contains("public class") && !javaContent.contains("class ")) {
-            System.out.println("[Validator] Missing package declaration or class definition.");
+        JavaStructureLexer lexer = LEXER.get();
+        lexer.reset();
+        if (!lexer.feed(javaContent) || !lexer.finish()) {
+            System.out.println("[Validator] " + lexer.error());
             return false;
         }
 
-        int openBraces = countChar(javaContent, '{');
-        int closeBraces = countChar(javaContent, '}');
-
-        if (openBraces != closeBraces) {
-            System.out.println("[Validator] Mismatch between { and } braces. Open: " + openBraces + ", Close: " + closeBraces);
-            return false;
-        }
-
-        if (!javaContent.endsWith("}")) {
-            System.out.println("[Validator] Java class does not properly close with }");
+        if (lexer.topLevelTypes().isEmpty()) {
+            System.out.println("[Validator] Missing class definition.");
             return false;
         }
 
         return true;
     }
-
-    private static int countChar(String input, char target) {
-        int count = 0;
-        for (char c : input.toCharArray()) {
-            if (c == target) {
-                count++;
-            }
-        }
-        return count;
-    }
 }
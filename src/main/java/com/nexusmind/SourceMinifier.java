@@ -0,0 +1,82 @@
+package com.nexusmind;
+
+/**
+ * Shrinks Java source used as prompt context: drops comments and collapses whitespace while leaving
+ * string, char and text-block literals untouched. Not meant to produce compilable output for the model to edit.
+ */
+public final class SourceMinifier {
+
+    private SourceMinifier() {
+    }
+
+    public static String minify(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        int i = 0;
+        int n = source.length();
+        boolean pendingSpace = false;
+        while (i < n) {
+            char c = source.charAt(i);
+            char next = i + 1 < n ? source.charAt(i + 1) : '\0';
+            if (c == '/' && next == '/') {
+                while (i < n && source.charAt(i) != '\n') {
+                    i++;
+                }
+                pendingSpace = true;
+            } else if (c == '/' && next == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                pendingSpace = true;
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+            } else if (c == '"' || c == '\'') {
+                flushSpace(out, pendingSpace, c);
+                pendingSpace = false;
+                i = copyLiteral(source, i, out);
+            } else {
+                flushSpace(out, pendingSpace, c);
+                pendingSpace = false;
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /** Keeps a single space only where dropping it would glue two identifiers together. */
+    private static void flushSpace(StringBuilder out, boolean pendingSpace, char next) {
+        if (pendingSpace && out.length() > 0
+                && isWordChar(out.charAt(out.length() - 1)) && (isWordChar(next) || next == '"' || next == '\'')) {
+            out.append(' ');
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static int copyLiteral(String source, int start, StringBuilder out) {
+        char quote = source.charAt(start);
+        if (quote == '"' && source.startsWith("\"\"\"", start)) {
+            int end = source.indexOf("\"\"\"", start + 3);
+            int stop = end < 0 ? source.length() : end + 3;
+            out.append(source, start, stop);
+            return stop;
+        }
+        int i = start + 1;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == quote || c == '\n') {
+                break;
+            }
+        }
+        int stop = Math.min(i, source.length());
+        out.append(source, start, stop);
+        return stop;
+    }
+}
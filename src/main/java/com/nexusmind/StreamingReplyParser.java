@@ -0,0 +1,185 @@
+package com.nexusmind;
+
+/**
+ * Incrementally parses an improvement reply as it streams in and rejects it as soon as it is clearly unusable:
+ * too much prose before the code fence, a fence in another language, a changed {@code package} header,
+ * a different top-level type name, or brackets, comments and literals that do not close when the fence closes.
+ * Work per chunk is proportional to the chunk length: code lines go through a {@link JavaStructureLexer} straight
+ * from the line buffer as they complete, without copying.
+ */
+public class StreamingReplyParser implements ReplyListener {
+
+    private static final String COMMIT_OPEN = "[COMMIT_MSG]";
+    private static final String COMMIT_CLOSE = "[/COMMIT_MSG]";
+
+    private enum State { BEFORE_CODE, IN_CODE, AFTER_CODE, IN_COMMIT_MSG, DONE }
+
+    private final String expectedType;
+    private final String expectedPackage;
+    private final int maxProseChars;
+
+    private final StringBuilder line = new StringBuilder();
+    private final StringBuilder code = new StringBuilder();
+    private final StringBuilder commitMessage = new StringBuilder();
+    private final JavaStructureLexer lexer = new JavaStructureLexer();
+    private State state = State.BEFORE_CODE;
+    private int proseChars;
+    private boolean packageChecked;
+    private boolean typeChecked;
+    private String abortReason;
+
+    public StreamingReplyParser(String expectedType, String expectedPackage, int maxProseChars) {
+        this.expectedType = expectedType;
+        this.expectedPackage = expectedPackage;
+        this.maxProseChars = maxProseChars;
+    }
+
+    /** Builds a parser expecting the reply to keep the type and package of {@code originalSource}. */
+    public static StreamingReplyParser forSource(String fileName, String originalSource) {
+        String type = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - 5) : null;
+        JavaStructureLexer original = new JavaStructureLexer();
+        original.feed(originalSource);
+        return new StreamingReplyParser(type, original.packageName(), NexusMindConfig.getInt("nexusmind.stream.maxProseChars", 1500));
+    }
+
+    @Override
+    public boolean onChunk(CharSequence chunk) {
+        if (abortReason != null) {
+            return false;
+        }
+        for (int i = 0; i < chunk.length() && abortReason == null; i++) {
+            char c = chunk.charAt(i);
+            if (c == '\n') {
+                handleLine();
+                line.setLength(0);
+            } else {
+                line.append(c);
+            }
+        }
+        if (abortReason == null && state == State.BEFORE_CODE && proseChars + line.length() > maxProseChars) {
+            abort("no ```java fence within the first " + maxProseChars + " characters");
+        }
+        return abortReason == null;
+    }
+
+    /** Flushes the trailing partial line once the reply is complete. */
+    @Override
+    public boolean finish() {
+        if (abortReason == null && line.length() > 0) {
+            handleLine();
+            line.setLength(0);
+        }
+        return abortReason == null;
+    }
+
+    /** Handles the complete line in {@link #line}; only prose and commit lines are turned into strings. */
+    private void handleLine() {
+        switch (state) {
+            case BEFORE_CODE -> {
+                String text = line.toString();
+                String trimmed = text.trim();
+                if (trimmed.startsWith("```")) {
+                    String language = trimmed.substring(3).trim();
+                    if (!language.isEmpty() && !language.equalsIgnoreCase("java")) {
+                        abort("code fence is '" + language + "' instead of java");
+                        return;
+                    }
+                    state = State.IN_CODE;
+                } else {
+                    proseChars += text.length() + 1;
+                    if (proseChars > maxProseChars) {
+                        abort("no ```java fence within the first " + maxProseChars + " characters");
+                    }
+                }
+            }
+            case IN_CODE -> {
+                if (isFence(line)) {
+                    state = State.AFTER_CODE;
+                    if (!lexer.finish()) {
+                        abort(lexer.error() + " at end of code block");
+                    }
+                    return;
+                }
+                code.append(line).append('\n');
+                inspectCodeLine();
+            }
+            case AFTER_CODE, IN_COMMIT_MSG -> handleCommitLine(line.toString());
+            case DONE -> {
+            }
+        }
+    }
+
+    private void inspectCodeLine() {
+        if (!lexer.feed(line) || !lexer.feed('\n')) {
+            abort(lexer.error());
+            return;
+        }
+        if (!packageChecked && lexer.packageName() != null) {
+            packageChecked = true;
+            if (expectedPackage != null && !lexer.packageName().equals(expectedPackage)) {
+                abort("package changed from " + expectedPackage + " to " + lexer.packageName());
+                return;
+            }
+        }
+        if (!typeChecked && !lexer.topLevelTypes().isEmpty()) {
+            typeChecked = true;
+            String type = lexer.topLevelTypes().get(0);
+            if (expectedType != null && !type.equals(expectedType)) {
+                abort("top-level type is " + type + " instead of " + expectedType);
+            }
+        }
+    }
+
+    private static boolean isFence(CharSequence text) {
+        int i = 0;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i + 3 <= text.length() && text.charAt(i) == '`' && text.charAt(i + 1) == '`' && text.charAt(i + 2) == '`';
+    }
+
+    private void handleCommitLine(String text) {
+        String remaining = text;
+        if (state == State.AFTER_CODE) {
+            int open = remaining.indexOf(COMMIT_OPEN);
+            if (open < 0) {
+                return;
+            }
+            state = State.IN_COMMIT_MSG;
+            remaining = remaining.substring(open + COMMIT_OPEN.length());
+        }
+        int close = remaining.indexOf(COMMIT_CLOSE);
+        if (close >= 0) {
+            commitMessage.append(remaining, 0, close);
+            state = State.DONE;
+        } else {
+            commitMessage.append(remaining).append('\n');
+        }
+    }
+
+    private void abort(String reason) {
+        abortReason = reason;
+    }
+
+    @Override
+    public String abortReason() {
+        return abortReason;
+    }
+
+    public boolean isAborted() {
+        return abortReason != null;
+    }
+
+    /** True once the code block and the commit message tags have both been seen. */
+    public boolean isComplete() {
+        return state == State.DONE;
+    }
+
+    public String code() {
+        return code.toString().trim();
+    }
+
+    public String commitMessage() {
+        return commitMessage.toString().trim();
+    }
+}
@@ -0,0 +1,283 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index of Java symbols used to find a file's related sources.
+ * <p>
+ * Each file gets one lexical pass (comments and literals skipped) that records its package, imports, top-level
+ * type names and the capitalized simple names it references, with counts. Nested types are left out so a
+ * {@code Map.Entry} reference does not link every file that declares its own {@code Entry}. Two inverted maps, declared type to
+ * files and referenced name to files, answer {@link #related(Path, int)} with a handful of hash lookups. Files
+ * are re-indexed one at a time through {@link #update(Path)} / {@link #remove(Path)}.
+ */
+public class SymbolIndex {
+
+    /** What one lexical pass found in a file. */
+    record FileSymbols(String packageName, List<String> imports, Set<String> declared, Map<String, Integer> references) {
+    }
+
+    private final Map<Path, FileSymbols> files = new ConcurrentHashMap<>();
+    private final Map<String, Set<Path>> declaredIn = new HashMap<>();
+    private final Map<String, Set<Path>> referencedBy = new HashMap<>();
+
+    /** (Re)indexes every file in parallel, replacing the current content. */
+    public void rebuild(Collection<Path> javaFiles) {
+        Map<Path, FileSymbols> parsed = new ConcurrentHashMap<>();
+        javaFiles.parallelStream().forEach(file -> {
+            FileSymbols symbols = parse(file);
+            if (symbols != null) {
+                parsed.put(file, symbols);
+            }
+        });
+        synchronized (this) {
+            files.clear();
+            declaredIn.clear();
+            referencedBy.clear();
+            parsed.forEach(this::link);
+        }
+        System.out.println("[SymbolIndex] Indexed " + parsed.size() + " files");
+    }
+
+    /** Re-indexes one file; a file that no longer exists is removed. */
+    public void update(Path file) {
+        FileSymbols symbols = Files.isRegularFile(file) ? parse(file) : null;
+        synchronized (this) {
+            unlink(file);
+            if (symbols != null) {
+                link(file, symbols);
+            }
+        }
+    }
+
+    public synchronized void remove(Path file) {
+        unlink(file);
+    }
+
+    public boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    /**
+     * Files {@code file} depends on, then files that depend on it, each ranked by how often the link is
+     * referenced, at most {@code limit} in total. A name counts as resolved to a declaring file when that file
+     * is in the same package or imported (by name or wildcard); names declared in exactly one file also count.
+     */
+    public synchronized List<Path> related(Path file, int limit) {
+        FileSymbols own = files.get(file);
+        if (own == null || limit <= 0) {
+            return List.of();
+        }
+        Map<Path, Integer> direct = new HashMap<>();
+        own.references().forEach((name, count) -> {
+            for (Path target : resolve(own, name)) {
+                if (!target.equals(file)) {
+                    direct.merge(target, count, Integer::sum);
+                }
+            }
+        });
+        Map<Path, Integer> reverse = new HashMap<>();
+        for (String type : own.declared()) {
+            for (Path user : referencedBy.getOrDefault(type, Set.of())) {
+                FileSymbols symbols = files.get(user);
+                if (!user.equals(file) && !direct.containsKey(user) && resolve(symbols, type).contains(file)) {
+                    reverse.merge(user, symbols.references().getOrDefault(type, 1), Integer::sum);
+                }
+            }
+        }
+        List<Path> ranked = new ArrayList<>(limit);
+        appendRanked(direct, ranked, limit);
+        appendRanked(reverse, ranked, limit);
+        return ranked;
+    }
+
+    /**
+     * Files that use {@code file}'s types, directly or through up to {@code maxDepth - 1} intermediate users,
+     * nearest first.
+     */
+    public synchronized Set<Path> dependents(Path file, int maxDepth) {
+        Set<Path> found = new LinkedHashSet<>();
+        List<Path> frontier = List.of(file);
+        for (int depth = 0; depth < maxDepth && !frontier.isEmpty(); depth++) {
+            List<Path> next = new ArrayList<>();
+            for (Path current : frontier) {
+                FileSymbols own = files.get(current);
+                if (own == null) {
+                    continue;
+                }
+                for (String type : own.declared()) {
+                    for (Path user : referencedBy.getOrDefault(type, Set.of())) {
+                        if (!user.equals(file) && !found.contains(user) && resolve(files.get(user), type).contains(current)) {
+                            found.add(user);
+                            next.add(user);
+                        }
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return found;
+    }
+
+    private static void appendRanked(Map<Path, Integer> scores, List<Path> out, int limit) {
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Path, Integer>comparingByValue().reversed()
+                        .thenComparing(e -> e.getKey().toString()))
+                .limit(Math.max(0, limit - out.size()))
+                .forEach(e -> out.add(e.getKey()));
+    }
+
+    /** Declaring files a simple name refers to from the point of view of {@code from}. */
+    private List<Path> resolve(FileSymbols from, String name) {
+        Set<Path> candidates = declaredIn.get(name);
+        if (candidates == null || candidates.isEmpty()) {
+            return List.of();
+        }
+        if (candidates.size() == 1) {
+            return List.copyOf(candidates);
+        }
+        List<Path> visible = new ArrayList<>();
+        for (Path candidate : candidates) {
+            String pkg = files.get(candidate).packageName();
+            if (pkg.equals(from.packageName())
+                    || from.imports().contains(pkg.isEmpty() ? name : pkg + "." + name)
+                    || from.imports().contains(pkg + ".*")) {
+                visible.add(candidate);
+            }
+        }
+        return visible;
+    }
+
+    private void link(Path file, FileSymbols symbols) {
+        files.put(file, symbols);
+        for (String type : symbols.declared()) {
+            declaredIn.computeIfAbsent(type, k -> new HashSet<>()).add(file);
+        }
+        for (String name : symbols.references().keySet()) {
+            referencedBy.computeIfAbsent(name, k -> new HashSet<>()).add(file);
+        }
+    }
+
+    private void unlink(Path file) {
+        FileSymbols old = files.remove(file);
+        if (old == null) {
+            return;
+        }
+        for (String type : old.declared()) {
+            removeFrom(declaredIn, type, file);
+        }
+        for (String name : old.references().keySet()) {
+            removeFrom(referencedBy, name, file);
+        }
+    }
+
+    private static void removeFrom(Map<String, Set<Path>> index, String key, Path file) {
+        Set<Path> paths = index.get(key);
+        if (paths != null && paths.remove(file) && paths.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static FileSymbols parse(Path file) {
+        try {
+            return scan(Files.readString(file));
+        } catch (IOException e) {
+            System.err.println("[SymbolIndex] Skipping unreadable " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Lexical pass: identifiers outside comments and literals, with just enough context for declarations. */
+    static FileSymbols scan(String source) {
+        String packageName = "";
+        List<String> imports = new ArrayList<>();
+        Set<String> declared = new HashSet<>();
+        Map<String, Integer> references = new LinkedHashMap<>();
+
+        int n = source.length();
+        int i = 0;
+        String previous = "";
+        boolean importStatic = false;
+        int depth = 0;
+        Set<String> nested = new HashSet<>();
+        while (i < n) {
+            char c = source.charAt(i);
+            char next = i + 1 < n ? source.charAt(i + 1) : '\0';
+            if (c == '/' && next == '/') {
+                while (i < n && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && next == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (c == '"' && source.startsWith("\"\"\"", i)) {
+                int end = source.indexOf("\"\"\"", i + 3);
+                i = end < 0 ? n : end + 3;
+            } else if (c == '"' || c == '\'') {
+                i++;
+                while (i < n && source.charAt(i) != c && source.charAt(i) != '\n') {
+                    i += source.charAt(i) == '\\' ? 2 : 1;
+                }
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                boolean qualified = previous.equals("package") || previous.equals("import") || importStatic;
+                int start = i;
+                while (i < n && (Character.isJavaIdentifierPart(source.charAt(i)) || qualified && source.charAt(i) == '.')) {
+                    i++;
+                }
+                String word = source.substring(start, i);
+                if (qualified && word.endsWith(".") && i < n && source.charAt(i) == '*') {
+                    word += "*";
+                    i++;
+                }
+                if (previous.equals("import") && word.equals("static")) {
+                    importStatic = true;
+                } else if (previous.equals("package")) {
+                    packageName = word;
+                } else if (qualified) {
+                    imports.add(word);
+                    importStatic = false;
+                } else if (isTypeKeyword(previous)) {
+                    if (depth == 0) {
+                        declared.add(word);
+                    } else {
+                        nested.add(word);
+                    }
+                } else if (Character.isUpperCase(word.charAt(0))) {
+                    references.merge(word, 1, Integer::sum);
+                }
+                previous = word;
+                continue;
+            } else {
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                }
+                if (!Character.isWhitespace(c)) {
+                    previous = String.valueOf(c);
+                }
+                i++;
+            }
+        }
+        references.keySet().removeAll(declared);
+        references.keySet().removeAll(nested);
+        return new FileSymbols(packageName, List.copyOf(imports), Set.copyOf(declared), Map.copyOf(references));
+    }
+
+    private static boolean isTypeKeyword(String word) {
+        return word.equals("class") || word.equals("interface") || word.equals("enum") || word.equals("record");
+    }
+}
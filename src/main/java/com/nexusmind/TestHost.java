@@ -0,0 +1,160 @@
+package com.nexusmind;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A forked JVM running {@link TestRunnerMain}, kept warm across test runs.
+ * <p>
+ * Its class path is the project's test class path plus a private copy of the runner class, so NexusMind's own
+ * classes never shadow the project's (NexusMind may be improving itself). A run that overruns its timeout kills
+ * the JVM; the owner then starts a new one. Test output is appended to {@code tests.log} next to the runner.
+ */
+final class TestHost implements AutoCloseable {
+
+    /** Outcome of one run; {@code error} is set when the host could not report results. */
+    record Run(long tests, List<String> failures, long millis, String error) {
+
+        boolean green() {
+            return error == null && failures.isEmpty();
+        }
+    }
+
+    private static final ExecutorService READERS = Executors.newVirtualThreadPerTaskExecutor();
+    private static Path runnerDir;
+
+    private final Process process;
+    private final OutputStream requests;
+    private final BufferedReader replies;
+    private int runs;
+
+    private TestHost(Process process) {
+        this.process = process;
+        this.requests = process.getOutputStream();
+        this.replies = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    /** Forks a JVM with {@code classpath} (JUnit and the project's dependencies) and extra {@code jvmArgs}. */
+    static TestHost start(List<String> classpath, List<String> jvmArgs) throws IOException {
+        Path runner = runnerDir();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        List<String> entries = new ArrayList<>();
+        entries.add(runner.toString());
+        entries.addAll(classpath);
+        command.add(String.join(File.pathSeparator, entries));
+        command.add(TestRunnerMain.class.getName());
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.appendTo(runner.resolve("tests.log").toFile()))
+                .start();
+        return new TestHost(process);
+    }
+
+    /** Runs {@code testClasses} loaded from {@code classpath} (directories or jars searched first to last). */
+    Run run(List<Path> classpath, List<String> testClasses, Duration timeout) {
+        long start = System.nanoTime();
+        runs++;
+        List<String> entries = classpath.stream().map(Path::toString).toList();
+        String request = String.join(File.pathSeparator, entries) + "\t" + String.join(",", testClasses) + "\n";
+        CompletableFuture<Run> reply = CompletableFuture.supplyAsync(() -> {
+            try {
+                requests.write(request.getBytes(StandardCharsets.UTF_8));
+                requests.flush();
+                List<String> failures = new ArrayList<>();
+                String line;
+                while ((line = replies.readLine()) != null) {
+                    String[] parts = line.split("\t", 3);
+                    if (parts[0].equals("FAIL") && parts.length == 3) {
+                        failures.add(parts[1] + ": " + parts[2]);
+                    } else if (parts[0].equals("DONE") && parts.length == 3) {
+                        return new Run(Long.parseLong(parts[1]), failures, millisSince(start), null);
+                    }
+                }
+                return new Run(0, failures, millisSince(start), "test JVM exited (exit code "
+                        + process.waitFor() + "), see " + runnerDir().resolve("tests.log"));
+            } catch (IOException e) {
+                return new Run(0, List.of(), millisSince(start), "test JVM unreachable: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Run(0, List.of(), millisSince(start), "interrupted");
+            }
+        }, READERS);
+        try {
+            return reply.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            process.destroyForcibly();
+            return new Run(0, List.of(), millisSince(start), "tests timed out after " + timeout.toSeconds() + " s");
+        } catch (ExecutionException e) {
+            process.destroyForcibly();
+            return new Run(0, List.of(), millisSince(start), "test run failed: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            return new Run(0, List.of(), millisSince(start), "interrupted");
+        }
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    int runs() {
+        return runs;
+    }
+
+    @Override
+    public void close() {
+        try {
+            requests.close();
+        } catch (IOException e) {
+            // already gone
+        }
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /** A directory holding only the runner's class file, created once per NexusMind process. */
+    private static synchronized Path runnerDir() throws IOException {
+        if (runnerDir == null) {
+            Path dir = Files.createTempDirectory("nexusmind-test-runner");
+            Path classFile = dir.resolve(TestRunnerMain.class.getName().replace('.', '/') + ".class");
+            Files.createDirectories(classFile.getParent());
+            try (InputStream in = TestRunnerMain.class.getResourceAsStream(TestRunnerMain.class.getSimpleName() + ".class")) {
+                if (in == null) {
+                    throw new IOException("runner class file not found");
+                }
+                Files.copy(in, classFile);
+            }
+            runnerDir = dir;
+        }
+        return runnerDir;
+    }
+}
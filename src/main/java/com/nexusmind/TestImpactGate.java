@@ -0,0 +1,411 @@
+package com.nexusmind;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Accepts a candidate only when the tests that can reach the changed file stay green.
+ * <p>
+ * The affected tests are the test classes among the files that use the changed file, directly or through up
+ * to {@code nexusmind.tests.depth} (default 3) reference hops in the {@link SymbolIndex}. A change no test
+ * reaches is accepted without running anything, so gating time follows the blast radius of the change.
+ * Each worktree keeps a build of its module's main and test sources at the base commit beside it, rebuilt
+ * only when the base moves; per candidate only the changed file, the main classes using it and the affected
+ * tests are compiled, into an overlay that shadows that build. The tests then run in warm forked JVMs ({@link TestHost}), split over up to
+ * {@code nexusmind.tests.forks} of them in parallel.
+ * <p>
+ * Needs the project's test class path (dependency jars including JUnit) in {@code nexusmind.tests.classpath}
+ * and assumes the Maven/Gradle layout ({@code src/main/java}, {@code src/test/java}). When a module does not
+ * build at the base commit its affected tests cannot run, and its candidates are rejected unless
+ * {@code nexusmind.tests.acceptUngated} is set.
+ */
+public class TestImpactGate implements CandidateCheck {
+
+    private static final String MAIN = "src/main/java";
+    private static final String TEST = "src/test/java";
+    private static final ExecutorService SHARDS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final RepoManager repoManager;
+    private final Path repoRoot;
+    private final JavaCompiler compiler;
+    private final List<String> classpath;
+    private final List<String> jvmArgs;
+    private final List<String> compileOptions;
+    private final int depth;
+    private final int forks;
+    private final int hostRuns;
+    private final Duration timeout;
+    private final boolean acceptUngated;
+    private final BlockingQueue<TestHost> idleHosts = new LinkedBlockingQueue<>();
+    private final ThreadLocal<StandardJavaFileManager> fileManagers;
+
+    private TestImpactGate(RepoManager repoManager, JavaCompiler compiler, List<String> classpath) {
+        this.repoManager = repoManager;
+        this.repoRoot = Path.of(repoManager.getLocalPath()).toAbsolutePath().normalize();
+        this.compiler = compiler;
+        this.classpath = classpath;
+        this.jvmArgs = splitOn(NexusMindConfig.get("nexusmind.tests.jvmArgs", ""), "\\s+");
+        String release = NexusMindConfig.get("nexusmind.compile.release", "").trim();
+        this.compileOptions = release.isEmpty()
+                ? List.of("-proc:none", "-implicit:none", "-nowarn", "-encoding", "UTF-8")
+                : List.of("-proc:none", "-implicit:none", "-nowarn", "-encoding", "UTF-8", "--release", release);
+        this.depth = NexusMindConfig.getInt("nexusmind.tests.depth", 3);
+        this.forks = Math.max(1, NexusMindConfig.getInt("nexusmind.tests.forks",
+                Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 2))));
+        this.hostRuns = NexusMindConfig.getInt("nexusmind.tests.hostRuns", 50);
+        this.timeout = Duration.ofSeconds(NexusMindConfig.getInt("nexusmind.tests.timeoutSeconds", 300));
+        this.acceptUngated = NexusMindConfig.getBoolean("nexusmind.tests.acceptUngated", false);
+        this.fileManagers = ThreadLocal.withInitial(
+                () -> compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8));
+    }
+
+    /** The gate, or null when {@code nexusmind.tests.classpath} is not set or no system compiler is available. */
+    public static TestImpactGate fromConfig(RepoManager repoManager) {
+        List<String> classpath = splitOn(NexusMindConfig.get("nexusmind.tests.classpath", ""), File.pathSeparator);
+        if (classpath.isEmpty()) {
+            return null;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("[Tests] No system Java compiler (running on a JRE?); the test gate is off");
+            return null;
+        }
+        return new TestImpactGate(repoManager, compiler, classpath);
+    }
+
+    @Override
+    public boolean needsWorktree() {
+        return true;
+    }
+
+    @Override
+    public String check(Path worktree, String relativePath, String code) {
+        return checkAll(worktree, Map.of(relativePath, code));
+    }
+
+    /** Runs the union of the tests affected by any of the changes, against all of them at once. */
+    @Override
+    public String checkAll(Path worktree, Map<String, String> changes) {
+        Map<String, List<String>> byModule = new LinkedHashMap<>();
+        for (String relativePath : changes.keySet()) {
+            String path = relativePath.replace('\\', '/');
+            int mainAt = path.indexOf(MAIN + "/");
+            int testAt = path.indexOf(TEST + "/");
+            if (mainAt < 0 && testAt < 0) {
+                System.out.println("[Tests] " + path + " is outside " + MAIN + " and " + TEST + "; not gated");
+                continue;
+            }
+            byModule.computeIfAbsent(path.substring(0, mainAt >= 0 ? mainAt : testAt), k -> new ArrayList<>()).add(path);
+        }
+        for (Map.Entry<String, List<String>> module : byModule.entrySet()) {
+            String rejection = checkModule(worktree, module.getKey(), module.getValue());
+            if (rejection != null) {
+                return rejection;
+            }
+        }
+        return null;
+    }
+
+    private String checkModule(Path worktree, String module, List<String> paths) {
+        String label = String.join(", ", paths);
+        Set<Path> dependents = new LinkedHashSet<>();
+        for (String path : paths) {
+            dependents.addAll(repoManager.findDependents(repoRoot.resolve(path), depth));
+        }
+        List<String> tests = affectedTests(paths, module, dependents);
+        if (tests.isEmpty()) {
+            System.out.println("[Tests] No tests reach " + label + "; accepted without running tests");
+            return null;
+        }
+
+        long start = System.nanoTime();
+        Path build = worktree.resolveSibling(worktree.getFileName() + ".build")
+                .resolve(module.isEmpty() ? "root" : module.replace('/', '_'));
+        String baseline = ensureBaseline(worktree, build, module, paths);
+        if (baseline != null) {
+            String reason = "affected tests cannot run: " + (module.isEmpty() ? "the project" : module)
+                    + " does not build here (" + baseline + ")";
+            if (acceptUngated) {
+                System.out.println("[Tests] " + reason + "; " + label + " accepted without tests (nexusmind.tests.acceptUngated)");
+                return null;
+            }
+            System.out.println("[Tests] " + reason + "; rejecting " + label);
+            return reason;
+        }
+
+        Path overlay = build.resolve("overlay");
+        // The changes, the main classes between them and the tests, and the tests themselves: the blast radius.
+        Set<File> sources = new LinkedHashSet<>();
+        paths.forEach(path -> sources.add(worktree.resolve(path).toFile()));
+        for (Path dependent : dependents) {
+            String relative = repoRoot.relativize(dependent).toString().replace('\\', '/');
+            if (relative.startsWith(module + MAIN + "/") && Files.isRegularFile(worktree.resolve(relative))) {
+                sources.add(worktree.resolve(relative).toFile());
+            }
+        }
+        tests.forEach(test -> sources.add(worktree.resolve(test).toFile()));
+        List<File> compileClasspath = new ArrayList<>(List.of(build.resolve("main").toFile(), build.resolve("test").toFile()));
+        classpath.forEach(entry -> compileClasspath.add(new File(entry)));
+        List<CompileValidator.Problem> errors;
+        try {
+            deleteRecursively(overlay);
+            errors = javac(fileManagers.get().getJavaFileObjectsFromFiles(sources), compileClasspath, overlay);
+        } catch (IOException e) {
+            throw new CheckUnavailableException("could not compile affected tests: " + e.getMessage(), e);
+        }
+        long compiled = System.nanoTime();
+        if (!errors.isEmpty()) {
+            return "affected tests do not compile against the change: "
+                    + errors.stream().limit(3).map(CompileValidator.Problem::toString).collect(Collectors.joining("; "));
+        }
+
+        List<Path> runClasspath = new ArrayList<>(List.of(overlay, build.resolve("test"), build.resolve("main")));
+        for (String resources : List.of("src/test/resources", "src/main/resources")) {
+            Path dir = worktree.resolve(module + resources);
+            if (Files.isDirectory(dir)) {
+                runClasspath.add(dir);
+            }
+        }
+        List<String> classes = tests.stream().map(test -> className(worktree.resolve(test))).toList();
+        TestHost.Run run = runSharded(runClasspath, classes);
+        System.out.println("[Tests] " + label + ": " + run.tests() + " tests in " + classes.size() + " affected classes, "
+                + (run.green() ? "all green" : run.failures().size() + " failed") + " (compile "
+                + (compiled - start) / 1_000_000 + " ms, run " + run.millis() + " ms)");
+        if (run.error() != null) {
+            throw new CheckUnavailableException("affected tests did not finish: " + run.error());
+        }
+        if (!run.failures().isEmpty()) {
+            return run.failures().size() + " of " + run.tests() + " affected tests failed: "
+                    + run.failures().stream().limit(3).collect(Collectors.joining("; "));
+        }
+        return null;
+    }
+
+    /** Test files of {@code module} among {@code dependents}, plus the changed files that are tests themselves. */
+    private List<String> affectedTests(List<String> paths, String module, Set<Path> dependents) {
+        List<String> tests = new ArrayList<>();
+        for (String path : paths) {
+            if (path.startsWith(module + TEST + "/") && isTestClass(path)) {
+                tests.add(path);
+            }
+        }
+        for (Path dependent : dependents) {
+            String relative = repoRoot.relativize(dependent).toString().replace('\\', '/');
+            if (relative.startsWith(module + TEST + "/") && isTestClass(relative) && !tests.contains(relative)) {
+                tests.add(relative);
+            }
+        }
+        return tests;
+    }
+
+    /** Surefire's default includes: {@code Test*}, {@code *Test}, {@code *Tests}, {@code *TestCase}. */
+    private static boolean isTestClass(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1).replaceFirst("\\.java$", "");
+        return name.startsWith("Test") || name.endsWith("Test") || name.endsWith("Tests") || name.endsWith("TestCase");
+    }
+
+    /**
+     * Makes sure {@code build} holds the module's main and test classes at the worktree's base commit, with
+     * the {@code candidatePaths} compiled from their committed versions. Returns null when it does, otherwise why
+     * not; the outcome is stamped so a module that does not build here is not retried until the base moves.
+     */
+    private String ensureBaseline(Path worktree, Path build, String module, List<String> candidatePaths) {
+        Git git = Git.forRepo(worktree.toString());
+        Git.Result head = git.run("rev-parse", "HEAD");
+        String commit = head.ok() ? head.stdout().trim() : null;
+        Path stamp = build.resolve("stamp");
+        try {
+            String stamped = Files.isRegularFile(stamp) ? Files.readString(stamp) : "";
+            if (commit != null && stamped.startsWith(commit + " ")) {
+                String outcome = stamped.substring(commit.length() + 1);
+                return outcome.equals("ok") ? null : outcome;
+            }
+            long start = System.nanoTime();
+            Path main = build.resolve("main");
+            Path test = build.resolve("test");
+            deleteRecursively(main);
+            deleteRecursively(test);
+            List<File> compileClasspath = new ArrayList<>();
+            classpath.forEach(entry -> compileClasspath.add(new File(entry)));
+            String outcome = "ok";
+            List<CompileValidator.Problem> errors = javac(baselineSources(git, commit, worktree, module + MAIN, candidatePaths),
+                    compileClasspath, main);
+            if (errors.isEmpty()) {
+                compileClasspath.add(0, main.toFile());
+                errors = javac(baselineSources(git, commit, worktree, module + TEST, candidatePaths), compileClasspath, test);
+            }
+            if (!errors.isEmpty()) {
+                outcome = errors.size() + " compile errors, first " + errors.get(0);
+            }
+            Files.createDirectories(build);
+            Files.writeString(stamp, commit + " " + outcome.replace('\n', ' '));
+            if (outcome.equals("ok")) {
+                System.out.println("[Tests] Built " + (module.isEmpty() ? "the project" : module) + " at " + commit
+                        + " for " + worktree.getFileName() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                return null;
+            }
+            return outcome;
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    /** The sources under {@code root}, with the candidates replaced by their committed content. */
+    private List<JavaFileObject> baselineSources(Git git, String commit, Path worktree, String root,
+            List<String> candidatePaths) throws IOException {
+        Path dir = worktree.resolve(root);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        Set<Path> candidates = candidatePaths.stream().map(worktree::resolve).collect(Collectors.toSet());
+        List<File> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p) && !candidates.contains(p))
+                    .map(Path::toFile).toList();
+        }
+        List<JavaFileObject> sources = new ArrayList<>();
+        fileManagers.get().getJavaFileObjectsFromFiles(files).forEach(sources::add);
+        for (String candidatePath : candidatePaths) {
+            if (!worktree.resolve(candidatePath).startsWith(dir)) {
+                continue;
+            }
+            Optional<Git.GitObject> original = git.readObject(commit + ":" + candidatePath);
+            original.ifPresent(object -> sources.add(new SimpleJavaFileObject(URI.create("string:///" + candidatePath),
+                    JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return new String(object.content(), StandardCharsets.UTF_8);
+                }
+            }));
+        }
+        return sources;
+    }
+
+    private List<CompileValidator.Problem> javac(Iterable<? extends JavaFileObject> sources, List<File> compileClasspath,
+            Path output) throws IOException {
+        if (!sources.iterator().hasNext()) {
+            return List.of();
+        }
+        Files.createDirectories(output);
+        StandardJavaFileManager fileManager = fileManagers.get();
+        fileManager.setLocation(StandardLocation.CLASS_PATH, compileClasspath);
+        fileManager.setLocation(StandardLocation.SOURCE_PATH, List.of());
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(output.toFile()));
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        compiler.getTask(null, fileManager, diagnostics, compileOptions, null, sources).call();
+        List<CompileValidator.Problem> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR) {
+                String source = d.getSource() == null ? "" : Path.of(d.getSource().getName()).getFileName().toString();
+                errors.add(new CompileValidator.Problem(source, Math.max(0, d.getLineNumber()), d.getCode(),
+                        d.getMessage(Locale.ROOT)));
+            }
+        }
+        return errors;
+    }
+
+    /** Splits the classes round-robin over up to {@code forks} hosts and merges their results. */
+    private TestHost.Run runSharded(List<Path> runClasspath, List<String> classes) {
+        int shards = Math.min(forks, classes.size());
+        List<List<String>> split = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            split.add(new ArrayList<>());
+        }
+        for (int i = 0; i < classes.size(); i++) {
+            split.get(i % shards).add(classes.get(i));
+        }
+        List<CompletableFuture<TestHost.Run>> runs = split.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> runOnHost(runClasspath, shard), SHARDS))
+                .toList();
+        long tests = 0;
+        long millis = 0;
+        List<String> failures = new ArrayList<>();
+        String error = null;
+        for (CompletableFuture<TestHost.Run> future : runs) {
+            TestHost.Run run = future.join();
+            tests += run.tests();
+            millis = Math.max(millis, run.millis());
+            failures.addAll(run.failures());
+            error = error != null ? error : run.error();
+        }
+        return new TestHost.Run(tests, failures, millis, error);
+    }
+
+    private TestHost.Run runOnHost(List<Path> runClasspath, List<String> classes) {
+        TestHost host = idleHosts.poll();
+        while (host != null && !host.isAlive()) {
+            host.close();
+            host = idleHosts.poll();
+        }
+        if (host == null) {
+            try {
+                host = TestHost.start(classpath, jvmArgs);
+            } catch (IOException e) {
+                return new TestHost.Run(0, List.of(), 0, "could not start a test JVM: " + e.getMessage());
+            }
+        }
+        TestHost.Run run = host.run(runClasspath, classes, timeout);
+        if (host.isAlive() && host.runs() < hostRuns) {
+            idleHosts.add(host);
+        } else {
+            host.close();
+        }
+        return run;
+    }
+
+    private static String className(Path file) {
+        JavaStructureLexer lexer = new JavaStructureLexer();
+        try {
+            lexer.feed(Files.readString(file));
+        } catch (IOException e) {
+            // fall back to the default package
+        }
+        String simpleName = file.getFileName().toString().replaceFirst("\\.java$", "");
+        return lexer.packageName() == null ? simpleName : lexer.packageName() + "." + simpleName;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static List<String> splitOn(String value, String separator) {
+        return Arrays.stream(value.trim().split(separator)).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,151 @@
+package com.nexusmind;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of the warm test JVM forked by {@link TestHost}; it is copied there on its own, so it must not
+ * use other NexusMind classes or nested classes.
+ * <p>
+ * Each request line is {@code <class path>\t<test class>,<test class>...}. The classes are loaded in a fresh
+ * class loader over that class path, while JUnit and the project's dependencies stay loaded (and JIT-compiled)
+ * in the parent across requests. Tests run on the JUnit Platform when its launcher is on the class path,
+ * otherwise on JUnit 4. The reply is one {@code FAIL\t<test>\t<message>} line per failure followed by
+ * {@code DONE\t<tests run>\t<failures>}; test output goes to stderr so it cannot corrupt the protocol.
+ */
+public final class TestRunnerMain {
+
+    private TestRunnerMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        PrintStream protocol = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+        BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        ClassLoader parent = TestRunnerMain.class.getClassLoader();
+        String request;
+        while ((request = requests.readLine()) != null) {
+            String[] parts = request.split("\t", 2);
+            List<URL> urls = new ArrayList<>();
+            for (String entry : parts[0].split(File.pathSeparator)) {
+                if (!entry.isEmpty()) {
+                    urls.add(Path.of(entry).toUri().toURL());
+                }
+            }
+            try (URLClassLoader loader = new URLClassLoader(urls.toArray(URL[]::new), parent)) {
+                Thread.currentThread().setContextClassLoader(loader);
+                List<Class<?>> classes = new ArrayList<>();
+                for (String name : parts.length > 1 ? parts[1].split(",") : new String[0]) {
+                    classes.add(Class.forName(name, false, loader));
+                }
+                long[] counts = isPresent("org.junit.platform.launcher.core.LauncherFactory")
+                        ? runPlatform(classes, protocol) : runJUnit4(classes, protocol);
+                protocol.println("DONE\t" + counts[0] + "\t" + counts[1]);
+            } catch (Throwable t) {
+                Throwable cause = t instanceof InvocationTargetException ite && ite.getCause() != null ? ite.getCause() : t;
+                protocol.println("FAIL\t(runner)\t" + oneLine(cause));
+                protocol.println("DONE\t0\t1");
+            } finally {
+                Thread.currentThread().setContextClassLoader(parent);
+            }
+        }
+    }
+
+    private static long[] runPlatform(List<Class<?>> classes, PrintStream protocol) throws Exception {
+        Method selectClass = Class.forName("org.junit.platform.engine.discovery.DiscoverySelectors")
+                .getMethod("selectClass", Class.class);
+        List<Object> selectors = new ArrayList<>();
+        for (Class<?> testClass : classes) {
+            selectors.add(selectClass.invoke(null, testClass));
+        }
+        Class<?> builderClass = Class.forName("org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder");
+        Object builder = builderClass.getMethod("request").invoke(null);
+        builderClass.getMethod("selectors", List.class).invoke(builder, selectors);
+        Object discovery = builderClass.getMethod("build").invoke(builder);
+
+        Class<?> listenerType = Class.forName("org.junit.platform.launcher.TestExecutionListener");
+        Object summaryListener = Class.forName("org.junit.platform.launcher.listeners.SummaryGeneratingListener")
+                .getConstructor().newInstance();
+        Object listeners = Array.newInstance(listenerType, 1);
+        Array.set(listeners, 0, summaryListener);
+        Object launcher = Class.forName("org.junit.platform.launcher.core.LauncherFactory").getMethod("create").invoke(null);
+        Class.forName("org.junit.platform.launcher.Launcher")
+                .getMethod("execute", Class.forName("org.junit.platform.launcher.LauncherDiscoveryRequest"), listeners.getClass())
+                .invoke(launcher, discovery, listeners);
+
+        Class<?> summaryType = Class.forName("org.junit.platform.launcher.listeners.TestExecutionSummary");
+        Object summary = summaryListener.getClass().getMethod("getSummary").invoke(summaryListener);
+        long run = (long) summaryType.getMethod("getTestsStartedCount").invoke(summary);
+        Class<?> failureType = Class.forName("org.junit.platform.launcher.listeners.TestExecutionSummary$Failure");
+        List<?> failures = (List<?>) summaryType.getMethod("getFailures").invoke(summary);
+        for (Object failure : failures) {
+            Object identifier = failureType.getMethod("getTestIdentifier").invoke(failure);
+            String id = (String) identifier.getClass().getMethod("getUniqueId").invoke(identifier);
+            Throwable exception = (Throwable) failureType.getMethod("getException").invoke(failure);
+            protocol.println("FAIL\t" + testName(id) + "\t" + oneLine(exception));
+        }
+        return new long[]{run, failures.size()};
+    }
+
+    private static long[] runJUnit4(List<Class<?>> classes, PrintStream protocol) throws Exception {
+        if (!isPresent("org.junit.runner.JUnitCore")) {
+            throw new IllegalStateException("neither the JUnit Platform launcher nor JUnit 4 is on the test class path");
+        }
+        Object result = Class.forName("org.junit.runner.JUnitCore").getMethod("runClasses", Class[].class)
+                .invoke(null, (Object) classes.toArray(Class[]::new));
+        Class<?> resultType = Class.forName("org.junit.runner.Result");
+        Class<?> failureType = Class.forName("org.junit.runner.notification.Failure");
+        List<?> failures = (List<?>) resultType.getMethod("getFailures").invoke(result);
+        for (Object failure : failures) {
+            protocol.println("FAIL\t" + failureType.getMethod("getTestHeader").invoke(failure) + "\t"
+                    + oneLine((Throwable) failureType.getMethod("getException").invoke(failure)));
+        }
+        return new long[]{(int) resultType.getMethod("getRunCount").invoke(result), failures.size()};
+    }
+
+    /** {@code Class.method()} from a JUnit Platform unique id, or the id itself. */
+    private static String testName(String uniqueId) {
+        String testClass = segment(uniqueId, "[class:");
+        String method = segment(uniqueId, "[method:");
+        if (testClass == null) {
+            return uniqueId;
+        }
+        return method == null ? testClass : testClass.substring(testClass.lastIndexOf('.') + 1) + "." + method;
+    }
+
+    private static String segment(String uniqueId, String marker) {
+        int start = uniqueId.indexOf(marker);
+        int end = start < 0 ? -1 : uniqueId.indexOf(']', start);
+        return end < 0 ? null : uniqueId.substring(start + marker.length(), end);
+    }
+
+    private static String oneLine(Throwable t) {
+        if (t == null) {
+            return "";
+        }
+        String message = t.getClass().getName() + (t.getMessage() == null ? "" : ": " + t.getMessage());
+        return message.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, TestRunnerMain.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.nexusmind;
+
+/**
+ * Cheap single-pass token estimate for prompt budgeting, close enough to BPE tokenizers on source code:
+ * every run of letters/digits costs one token per four characters, every other visible character one token,
+ * and whitespace is free except for line breaks.
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                wordLength++;
+                continue;
+            }
+            if (wordLength > 0) {
+                tokens += (wordLength + 3) / 4;
+                wordLength = 0;
+            }
+            if (c == '\n' || !Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        if (wordLength > 0) {
+            tokens += (wordLength + 3) / 4;
+        }
+        return tokens;
+    }
+}
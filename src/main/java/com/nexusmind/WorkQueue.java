@@ -0,0 +1,216 @@
+package com.nexusmind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Priority-ordered queue of files to improve, kept across restarts.
+ * <p>
+ * Files are ordered by descending priority score, then case-insensitively by path. Each score is computed
+ * once when the file set is (re)loaded. Consecutive {@link #next(String)} calls are heap polls; only a cursor
+ * that does not match the last returned file (e.g. a batch that stopped early) costs a linear reposition.
+ * The file list and its fingerprint are persisted on rebuild, the cursor after every poll in a small side file,
+ * so a restart with an unchanged fingerprint needs no tree walk.
+ */
+public class WorkQueue {
+
+    private static final Comparator<Item> ORDER = Comparator.comparingInt(Item::score).reversed()
+            .thenComparing(Item::path, String.CASE_INSENSITIVE_ORDER);
+
+    private record Item(String path, int score) {
+    }
+
+    private final Path stateFile;
+    private final ToIntFunction<String> scorer;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Item> items = new ArrayList<>();
+    private PriorityQueue<Item> heap = new PriorityQueue<>(ORDER);
+    private String fingerprint;
+    private String cursor;
+    private boolean loaded;
+
+    public WorkQueue(Path stateFile, ToIntFunction<String> scorer) {
+        this.stateFile = stateFile;
+        this.scorer = scorer;
+        load();
+    }
+
+    /** Whether the queue already holds the file set identified by {@code fingerprint}. */
+    public synchronized boolean isCurrent(String fingerprint) {
+        return loaded && fingerprint != null && fingerprint.equals(this.fingerprint);
+    }
+
+    /** Replaces the file set; scores are computed here, once per file. */
+    public synchronized void rebuild(List<String> paths, String fingerprint) {
+        items.clear();
+        for (String path : paths) {
+            items.add(new Item(path, scorer.applyAsInt(path)));
+        }
+        this.fingerprint = fingerprint;
+        this.loaded = true;
+        reposition(cursor);
+        save();
+        saveCursor();
+        System.out.println("[WorkQueue] Rebuilt with " + items.size() + " files");
+    }
+
+    /** Forgets which file set the queue holds, so the next {@link #isCurrent} check asks for a rebuild. */
+    public synchronized void invalidate() {
+        fingerprint = null;
+        save();
+    }
+
+    /** Fingerprint of the file set the queue was last synced to, or null before the first build. */
+    public synchronized String fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Adds and removes files without a rebuild. Added files land in the heap only when they sort after the
+     * cursor, as they would have in a full rebuild.
+     */
+    public synchronized void applyChanges(List<String> added, List<String> removed, String fingerprint) {
+        Set<String> gone = new HashSet<>(removed);
+        if (!gone.isEmpty()) {
+            items.removeIf(item -> gone.contains(item.path()));
+            heap.removeIf(item -> gone.contains(item.path()));
+        }
+        Set<String> known = new HashSet<>();
+        for (Item item : items) {
+            known.add(item.path());
+        }
+        Item mark = cursor == null ? null : new Item(cursor, scorer.applyAsInt(cursor));
+        for (String path : added) {
+            if (!known.add(path)) {
+                continue;
+            }
+            Item item = new Item(path, scorer.applyAsInt(path));
+            items.add(item);
+            if (mark == null || ORDER.compare(item, mark) > 0) {
+                heap.add(item);
+            }
+        }
+        this.fingerprint = fingerprint;
+        save();
+        System.out.println("[WorkQueue] Applied " + added.size() + " added and " + removed.size() + " removed files");
+    }
+
+    /**
+     * Returns the file that follows {@code after} in priority order, or null when none is left.
+     * A null {@code after} starts from the top.
+     */
+    public synchronized String next(String after) {
+        if (!Objects.equals(after, cursor)) {
+            reposition(after);
+        }
+        Item item = heap.poll();
+        if (item == null) {
+            return null;
+        }
+        cursor = item.path();
+        saveCursor();
+        return item.path();
+    }
+
+    /**
+     * Recomputes every score, e.g. after the history statistics behind the scorer moved. The rest of the pass
+     * continues from the cursor in the new order.
+     */
+    public synchronized void rescore() {
+        items.replaceAll(item -> new Item(item.path(), scorer.applyAsInt(item.path())));
+        reposition(cursor);
+        save();
+        System.out.println("[WorkQueue] Rescored " + items.size() + " files");
+    }
+
+    public synchronized int remaining() {
+        return heap.size();
+    }
+
+    /** Refills the heap with every file ordered after {@code after}; unknown paths are placed by their score. */
+    private void reposition(String after) {
+        cursor = after;
+        if (after == null) {
+            heap = new PriorityQueue<>(items.isEmpty() ? 1 : items.size(), ORDER);
+            heap.addAll(items);
+            return;
+        }
+        Item mark = new Item(after, scorer.applyAsInt(after));
+        heap = new PriorityQueue<>(ORDER);
+        for (Item item : items) {
+            if (ORDER.compare(item, mark) > 0) {
+                heap.add(item);
+            }
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(stateFile)) {
+            return;
+        }
+        try {
+            JsonNode root = mapper.readTree(stateFile.toFile());
+            for (JsonNode node : root.path("items")) {
+                items.add(new Item(node.path("path").asText(), node.path("score").asInt()));
+            }
+            fingerprint = root.path("fingerprint").asText(null);
+            loaded = true;
+            Path cursorFile = cursorFile();
+            String saved = Files.exists(cursorFile) ? Files.readString(cursorFile).trim() : "";
+            reposition(saved.isEmpty() ? null : saved);
+            System.out.println("[WorkQueue] Loaded " + items.size() + " files, " + heap.size() + " left");
+        } catch (IOException e) {
+            System.err.println("[WorkQueue] State unreadable, will rebuild: " + e.getMessage());
+            items.clear();
+            loaded = false;
+        }
+    }
+
+    private Path cursorFile() {
+        return stateFile.resolveSibling(stateFile.getFileName() + ".cursor");
+    }
+
+    private void saveCursor() {
+        try {
+            writeAtomically(cursorFile(), cursor == null ? "" : cursor);
+        } catch (IOException e) {
+            System.err.println("[WorkQueue] Failed to save cursor: " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("fingerprint", fingerprint);
+        ArrayNode array = root.putArray("items");
+        for (Item item : items) {
+            array.addObject().put("path", item.path()).put("score", item.score());
+        }
+        try {
+            writeAtomically(stateFile, mapper.writeValueAsString(root));
+        } catch (IOException e) {
+            System.err.println("[WorkQueue] Failed to save state: " + e.getMessage());
+        }
+    }
+
+    /** Writes through a temp file so a crash never leaves the state half written. */
+    private static void writeAtomically(Path file, String content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, content);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,92 @@
+package com.nexusmind;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Pool of linked {@code git worktree} checkouts, one per candidate being validated.
+ * <p>
+ * A worktree is created on first demand (or reused from an earlier run) next to the repository and handed out
+ * through {@link #lease(String)} reset to the requested commit: {@code reset --hard} rewrites only the files
+ * that differ and {@code clean -fd} drops untracked leftovers while keeping ignored build output warm. At most
+ * {@code size} worktrees exist, so that many candidates can be built or tested side by side without seeing
+ * each other's changes.
+ */
+public class WorktreePool {
+
+    private final Git git;
+    private final Path baseDir;
+    private final int size;
+    private final BlockingQueue<Path> idle = new LinkedBlockingQueue<>();
+    private int created;
+
+    public WorktreePool(Git git, Path baseDir, int size) {
+        this.git = git;
+        this.baseDir = baseDir;
+        this.size = Math.max(1, size);
+    }
+
+    /** A worktree checked out at a commit, private to its holder until closed. */
+    public final class Lease implements AutoCloseable {
+
+        private final Path path;
+
+        private Lease(Path path) {
+            this.path = path;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        /** Writes {@code content} to {@code relativePath} inside this worktree. */
+        public void write(String relativePath, String content) throws IOException {
+            Path file = path.resolve(relativePath);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, content);
+        }
+
+        @Override
+        public void close() {
+            idle.add(path);
+        }
+    }
+
+    /** Waits for a free worktree (creating one while under the limit) and resets it to {@code commit}. */
+    public Lease lease(String commit) throws InterruptedException {
+        Path path = idle.poll();
+        if (path == null) {
+            synchronized (this) {
+                if (created < size) {
+                    path = baseDir.resolve("wt-" + created++);
+                }
+            }
+            if (path == null) {
+                path = idle.take();
+            }
+        }
+        try {
+            prepare(path, commit);
+        } catch (RuntimeException e) {
+            idle.add(path);
+            throw e;
+        }
+        return new Lease(path);
+    }
+
+    private void prepare(Path path, String commit) {
+        if (Files.isRegularFile(path.resolve(".git"))) {
+            Git worktree = Git.forRepo(path.toString());
+            worktree.run("reset", "-q", "--hard", commit).orThrow();
+            worktree.run("clean", "-fdq").orThrow();
+            return;
+        }
+        long start = System.nanoTime();
+        git.run("worktree", "prune").orThrow();
+        git.run("worktree", "add", "-f", "--detach", path.toString(), commit).orThrow();
+        System.out.println("[Worktree] Created " + path + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}